@@ -1,15 +1,10 @@
 package io.github.mcengine.extension.addon.currency.bank;
 
 import io.github.mcengine.api.currency.extension.addon.IMCEngineCurrencyAddOn;
-import io.github.mcengine.api.core.MCEngineApi;
 import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
-import io.github.mcengine.common.currency.MCEngineCurrencyCommon;
 import io.github.mcengine.extension.addon.currency.bank.command.BankCommand;
-import io.github.mcengine.extension.addon.currency.bank.database.BankDB;
-import io.github.mcengine.extension.addon.currency.bank.scheduler.BankInterestScheduler;
 import io.github.mcengine.extension.addon.currency.bank.tabcompleter.BankTabCompleter;
 import io.github.mcengine.extension.addon.currency.bank.util.BankCommandUtil;
-import io.github.mcengine.extension.addon.currency.bank.util.InterestConfigGenerator;
 
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
@@ -19,7 +14,6 @@ import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.PluginManager;
 
 import java.lang.reflect.Field;
-import java.sql.Connection;
 import java.util.List;
 
 /**
@@ -32,7 +26,8 @@ public class Bank implements IMCEngineCurrencyAddOn {
 
     /**
      * Called when the add-on is loaded by the MCEngine framework.
-     * Initializes the logger, creates database tables, and registers the /bank command.
+     * Registers the /bank command and starts the asynchronous startup stages in {@link BankStartup};
+     * the command reports that the bank is starting until the database is ready.
      *
      * @param plugin The Bukkit plugin instance that owns this add-on.
      */
@@ -42,12 +37,6 @@ public class Bank implements IMCEngineCurrencyAddOn {
 
         BankCommandUtil.check(logger);
 
-        InterestConfigGenerator.createInterestConfigIfAbsent(plugin, logger);
-
-        // Create required database tables
-        Connection conn = MCEngineCurrencyCommon.getApi().getDBConnection();
-        BankDB.createDBTable(conn, logger);
-
         try {
             // Access command map via reflection
             Field commandMapField = Bukkit.getServer().getClass().getDeclaredField("commandMap");
@@ -85,17 +74,7 @@ public class Bank implements IMCEngineCurrencyAddOn {
             e.printStackTrace();
         }
 
-        // Start the cron-based interest scheduler
-        new BankInterestScheduler(plugin, logger);
-
-        // Check for plugin updates
-        MCEngineApi.checkUpdate(
-            plugin,
-            logger.getLogger(),
-            "github",
-            "MCEngine-Extension",
-            "currency-addon-bank",
-            plugin.getConfig().getString("github.token", "null")
-        );
+        // Config, database, schedulers and update check run off the server thread
+        BankStartup.start(plugin, logger);
     }
 }
@@ -0,0 +1,178 @@
+package io.github.mcengine.extension.addon.currency.bank;
+
+import io.github.mcengine.api.core.MCEngineApi;
+import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
+import io.github.mcengine.extension.addon.currency.bank.database.BankConnectionManager;
+import io.github.mcengine.extension.addon.currency.bank.database.BankDB;
+import io.github.mcengine.extension.addon.currency.bank.registry.BankCoinRegistry;
+import io.github.mcengine.extension.addon.currency.bank.scheduler.BankInterestScheduler;
+import io.github.mcengine.extension.addon.currency.bank.scheduler.BankRollupScheduler;
+import io.github.mcengine.extension.addon.currency.bank.scheduler.BankSnapshotScheduler;
+import io.github.mcengine.extension.addon.currency.bank.snapshot.BalanceSnapshotStore;
+import io.github.mcengine.extension.addon.currency.bank.util.InterestConfigGenerator;
+import org.bukkit.plugin.Plugin;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the add-on's startup I/O off the server thread and tracks when the bank is ready.
+ * <p>
+ * Stages:
+ * <ul>
+ *     <li><b>config</b> — writes the example interest config if absent.</li>
+ *     <li><b>snapshot</b> — maps the balance snapshot so balances can be read before the database is up.</li>
+ *     <li><b>database</b> — opens connections, migrates the schema, loads the coin registry and
+ *     checks the mapped snapshot against the database.</li>
+ *     <li><b>update check</b> — queries GitHub for a newer release.</li>
+ *     <li><b>schedulers</b> — starts interest, rollup and snapshot jobs once config and database are done.</li>
+ * </ul>
+ * Readiness depends on the database stage alone: the bank becomes {@link State#READY} once it
+ * succeeds and the snapshot has been checked or dropped, and {@link State#FAILED} if it fails.
+ * The snapshot is an optional cache; any failure while loading or checking it only drops it.
+ * The update check never delays readiness. Each stage logs its duration.
+ */
+public final class BankStartup {
+
+    /**
+     * Readiness of the bank add-on.
+     */
+    public enum State {
+        /** Startup stages are still running. */
+        STARTING,
+        /** The database is usable and commands are accepted. */
+        READY,
+        /** The database stage failed; commands stay disabled until restart. */
+        FAILED
+    }
+
+    /** Current readiness. */
+    private static volatile State state = State.STARTING;
+
+    private BankStartup() {
+    }
+
+    /**
+     * @return The current readiness state.
+     */
+    public static State state() {
+        return state;
+    }
+
+    /**
+     * @return {@code true} once the database stage has completed successfully.
+     */
+    public static boolean isReady() {
+        return state == State.READY;
+    }
+
+    /**
+     * Starts all stages asynchronously and returns immediately.
+     *
+     * @param plugin The plugin instance.
+     * @param logger The add-on logger.
+     */
+    public static void start(Plugin plugin, MCEngineAddOnLogger logger) {
+        long started = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "MCEngineBank-startup");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        CompletableFuture<Void> config = stage(executor, logger, "config",
+                () -> InterestConfigGenerator.createInterestConfigIfAbsent(plugin, logger));
+
+        CompletableFuture<Void> snapshot = stage(executor, logger, "snapshot",
+                () -> BalanceSnapshotStore.load(BalanceSnapshotStore.directoryFor(plugin), logger));
+
+        CompletableFuture<Void> database = stage(executor, logger, "database", () -> {
+            if (!BankConnectionManager.init(plugin, logger)) {
+                throw new IllegalStateException("bank database connections could not be opened");
+            }
+            if (!BankDB.createDBTable(BankConnectionManager.writer(), logger)) {
+                throw new IllegalStateException("schema migration failed");
+            }
+
+            // Map configured coin types to their stored ordinals
+            try {
+                BankCoinRegistry.load(BankConnectionManager.writer(), plugin.getConfig().getStringList("bank.coin-types"), logger);
+            } catch (SQLException e) {
+                logger.warning("Failed to load bank coin types, using defaults: " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
+
+        // Never completes exceptionally: a snapshot that fails to load or verify is dropped
+        CompletableFuture<Void> verified = database.thenCombine(snapshot, (a, b) -> null)
+                .thenComposeAsync(ignored -> stage(executor, logger, "snapshot verify", () -> {
+                    try (BankConnectionManager.Lease lease = BankConnectionManager.readPrimary()) {
+                        BalanceSnapshotStore.verify(lease.connection(), logger);
+                    } catch (SQLException e) {
+                        BalanceSnapshotStore.invalidate();
+                        logger.warning("Failed to verify balance snapshot, discarding it: " + e.getMessage());
+                    }
+                }), executor)
+                .exceptionally(error -> {
+                    BalanceSnapshotStore.invalidate();
+                    return null;
+                });
+
+        CompletableFuture<Void> update = stage(executor, logger, "update check", () -> MCEngineApi.checkUpdate(
+                plugin,
+                logger.getLogger(),
+                "github",
+                "MCEngine-Extension",
+                "currency-addon-bank",
+                plugin.getConfig().getString("github.token", "null")
+        ));
+
+        CompletableFuture<Void> ready = database.thenCompose(ignored -> verified).whenComplete((ignored, error) -> {
+            state = error == null ? State.READY : State.FAILED;
+            if (error != null) {
+                logger.warning("Bank is unavailable: database startup failed.");
+            }
+        });
+
+        CompletableFuture<Void> schedulers = CompletableFuture.allOf(config, ready).thenComposeAsync(ignored ->
+                stage(executor, logger, "schedulers", () -> {
+                    new BankInterestScheduler(plugin, logger);
+                    new BankRollupScheduler(plugin, logger);
+                    new BankSnapshotScheduler(plugin, logger);
+                }), executor);
+
+        CompletableFuture.allOf(schedulers, update).whenComplete((ignored, error) -> {
+            executor.shutdown();
+            logger.info("Bank startup finished in " + millisSince(started) + " ms (" + state + ").");
+        });
+    }
+
+    /**
+     * Runs one startup stage on the executor and logs its duration or failure.
+     *
+     * @param executor The startup executor.
+     * @param logger   The add-on logger.
+     * @param name     The stage name used in log messages.
+     * @param work     The stage body.
+     * @return A future completing when the stage ends; completes exceptionally on failure.
+     */
+    private static CompletableFuture<Void> stage(ExecutorService executor, MCEngineAddOnLogger logger, String name, Runnable work) {
+        return CompletableFuture.runAsync(() -> {
+            long started = System.nanoTime();
+            try {
+                work.run();
+                logger.info("Bank startup stage '" + name + "' finished in " + millisSince(started) + " ms.");
+            } catch (RuntimeException e) {
+                logger.warning("Bank startup stage '" + name + "' failed after " + millisSince(started) + " ms: " + e.getMessage());
+                e.printStackTrace();
+                throw e;
+            }
+        }, executor);
+    }
+
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+}
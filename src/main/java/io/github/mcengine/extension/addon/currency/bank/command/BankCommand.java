@@ -1,14 +1,23 @@
 package io.github.mcengine.extension.addon.currency.bank.command;
 
 import io.github.mcengine.common.currency.MCEngineCurrencyCommon;
+import io.github.mcengine.extension.addon.currency.bank.BankStartup;
+import io.github.mcengine.extension.addon.currency.bank.database.BankConnectionManager;
 import io.github.mcengine.extension.addon.currency.bank.database.BankDB;
+import io.github.mcengine.extension.addon.currency.bank.database.BankRollupDB;
+import io.github.mcengine.extension.addon.currency.bank.registry.BankCoinRegistry;
+import io.github.mcengine.extension.addon.currency.bank.registry.PrefixTable;
+import io.github.mcengine.extension.addon.currency.bank.snapshot.BalanceSnapshotStore;
 import io.github.mcengine.extension.addon.currency.bank.util.BankCommandUtil;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
-import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 
 /**
  * Handles the /bank command and its subcommands for depositing, withdrawing, and checking balances.
@@ -18,13 +27,38 @@ import java.sql.Connection;
  *     <li>/bank deposit &lt;coinType&gt; &lt;amount&gt;</li>
  *     <li>/bank withdraw &lt;coinType&gt; &lt;amount&gt;</li>
  *     <li>/bank balance &lt;coinType&gt;</li>
+ *     <li>/bank admin report &lt;from&gt; &lt;to&gt; (dates as yyyy-MM-dd)</li>
  * </ul>
  * <p>
- * This class ensures that only valid coin types are accepted directly in the method logic,
- * without storing valid coin types in memory.
+ * Coin types are validated against {@link BankCoinRegistry}. Balances are served from the
+ * {@link BalanceSnapshotStore} when possible. Until {@link BankStartup} reports the bank as ready,
+ * only balance queries the snapshot can answer are accepted; everything else answers that the
+ * bank is starting. Commands run on the server thread, so they wait at most
+ * {@value #BUSY_TIMEOUT_MILLIS} ms for a connection or the write lock before answering that the
+ * bank is busy.
  */
 public class BankCommand implements CommandExecutor {
 
+    /**
+     * Permission required for {@code /bank admin} subcommands.
+     */
+    private static final String ADMIN_PERMISSION = "mcengine.currency.bank.admin";
+
+    /**
+     * Longest time the server thread waits for a database connection or the write lock.
+     */
+    private static final long BUSY_TIMEOUT_MILLIS = 100L;
+
+    /**
+     * Reply sent when the database stays busy for longer than {@link #BUSY_TIMEOUT_MILLIS}.
+     */
+    private static final String BUSY_MESSAGE = "§eThe bank is busy. Please try again in a moment.";
+
+    /**
+     * Player subcommands, matched case-insensitively without allocating.
+     */
+    private static final PrefixTable ACTIONS = new PrefixTable(List.of("deposit", "withdraw", "balance"));
+
     /**
      * Executes the /bank command. Supports deposit, withdraw, and balance query operations.
      *
@@ -36,6 +70,17 @@ public class BankCommand implements CommandExecutor {
      */
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!BankStartup.isReady() && !isSnapshotBalance(args)) {
+            sender.sendMessage(BankStartup.state() == BankStartup.State.FAILED
+                    ? "§cThe bank is unavailable. Please contact an administrator."
+                    : "§eThe bank is starting. Please try again in a moment.");
+            return true;
+        }
+
+        if (args.length > 0 && args[0].equalsIgnoreCase("admin")) {
+            return onAdminCommand(sender, args);
+        }
+
         if (!(sender instanceof Player player)) {
             sender.sendMessage("§cOnly players can use this command.");
             return true;
@@ -46,18 +91,18 @@ public class BankCommand implements CommandExecutor {
             return true;
         }
 
-        String action = args[0].toLowerCase();
-        String coinType = args[1].toLowerCase();
-
-        if (!coinType.equals("coin") &&
-            !coinType.equals("copper") &&
-            !coinType.equals("silver") &&
-            !coinType.equals("gold")) {
-            player.sendMessage("§cInvalid coin type. Valid types: coin, copper, silver, gold.");
+        String action = ACTIONS.match(args[0]);
+        if (action == null) {
+            player.sendMessage("§cUnknown bank subcommand. Use deposit, withdraw, or balance.");
             return true;
         }
 
-        Connection conn = MCEngineCurrencyCommon.getApi().getDBConnection();
+        int coin = BankCoinRegistry.code(args[1]);
+        if (coin < 0) {
+            player.sendMessage("§cInvalid coin type. Valid types: " + BankCoinRegistry.display() + ".");
+            return true;
+        }
+        String coinType = BankCoinRegistry.name(coin);
 
         switch (action) {
             case "deposit" -> {
@@ -75,7 +120,15 @@ public class BankCommand implements CommandExecutor {
                     return true;
                 }
 
-                BankDB.deposit(conn, player, coinType, amount);
+                if (!BankConnectionManager.tryWriteLock(BUSY_TIMEOUT_MILLIS)) {
+                    player.sendMessage(BUSY_MESSAGE);
+                    return true;
+                }
+                try {
+                    BankDB.deposit(BankConnectionManager.writer(), player, coinType, amount);
+                } finally {
+                    BankConnectionManager.writeLock().unlock();
+                }
             }
 
             case "withdraw" -> {
@@ -87,23 +140,126 @@ public class BankCommand implements CommandExecutor {
                 double amount = BankCommandUtil.parseAmount(args[2], player);
                 if (amount <= 0) return true;
 
-                double bankBalance = BankDB.getBankBalance(conn, player, coinType);
+                double bankBalance = bankBalance(player, coin, coinType);
+                if (Double.isNaN(bankBalance)) return true;
                 if (bankBalance < amount) {
                     player.sendMessage("§cYou do not have enough " + coinType + " in your bank.");
                     return true;
                 }
 
-                BankDB.withdraw(conn, player, coinType, amount);
+                if (!BankConnectionManager.tryWriteLock(BUSY_TIMEOUT_MILLIS)) {
+                    player.sendMessage(BUSY_MESSAGE);
+                    return true;
+                }
+                try {
+                    BankDB.withdraw(BankConnectionManager.writer(), player, coinType, amount);
+                } finally {
+                    BankConnectionManager.writeLock().unlock();
+                }
             }
 
             case "balance" -> {
-                double bankBalance = BankDB.getBankBalance(conn, player, coinType);
+                double bankBalance = bankBalance(player, coin, coinType);
+                if (Double.isNaN(bankBalance)) {
+                    if (!BankStartup.isReady()) player.sendMessage("§eThe bank is starting. Please try again in a moment.");
+                    return true;
+                }
                 player.sendMessage("§aYour bank balance for §e" + coinType + "§a is: §e" + bankBalance);
             }
+        }
 
-            default -> player.sendMessage("§cUnknown bank subcommand. Use deposit, withdraw, or balance.");
+        return true;
+    }
+
+    /**
+     * Reads a player's bank balance from the balance snapshot, falling back to a read connection
+     * if the snapshot cannot answer.
+     *
+     * @param player   The player.
+     * @param coin     The coin ordinal.
+     * @param coinType The coin type name.
+     * @return The bank balance, or {@link Double#NaN} if the snapshot cannot answer before the bank is ready
+     * or the read fails or times out (the player is told in those cases).
+     */
+    private double bankBalance(Player player, int coin, String coinType) {
+        double balance = BalanceSnapshotStore.balance(player.getUniqueId(), coin);
+        if (!Double.isNaN(balance) || !BankStartup.isReady()) return balance;
+
+        try (BankConnectionManager.Lease lease = BankConnectionManager.tryRead(BUSY_TIMEOUT_MILLIS)) {
+            if (lease == null) {
+                player.sendMessage(BUSY_MESSAGE);
+                return Double.NaN;
+            }
+            return BankDB.getBankBalance(lease.connection(), player, coinType);
+        } catch (SQLException e) {
+            player.sendMessage("§cFailed to fetch bank balance.");
+            e.printStackTrace();
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Whether a {@code balance} query can be answered from the snapshot while the bank is starting.
+     *
+     * @param args Command arguments.
+     * @return {@code true} if the query is a balance lookup and a snapshot is mapped.
+     */
+    private boolean isSnapshotBalance(String[] args) {
+        return BankStartup.state() == BankStartup.State.STARTING
+                && args.length > 0 && args[0].equalsIgnoreCase("balance")
+                && BalanceSnapshotStore.isAvailable();
+    }
+
+    /**
+     * Executes {@code /bank admin} subcommands. Available to the console and to players
+     * with {@value #ADMIN_PERMISSION}.
+     *
+     * @param sender The command sender.
+     * @param args   Command arguments, starting with "admin".
+     * @return Always {@code true}.
+     */
+    private boolean onAdminCommand(CommandSender sender, String[] args) {
+        if (sender instanceof Player && !sender.hasPermission(ADMIN_PERMISSION)) {
+            sender.sendMessage("§cYou do not have permission to use this command.");
+            return true;
+        }
+
+        if (args.length < 4 || !args[1].equalsIgnoreCase("report")) {
+            sender.sendMessage("§cUsage: /bank admin report <from> <to>");
+            return true;
         }
 
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = LocalDate.parse(args[2]);
+            to = LocalDate.parse(args[3]);
+        } catch (DateTimeParseException e) {
+            sender.sendMessage("§cDates must use the format yyyy-MM-dd.");
+            return true;
+        }
+
+        List<BankRollupDB.Total> totals;
+        try (BankConnectionManager.Lease lease = BankConnectionManager.tryRead(BUSY_TIMEOUT_MILLIS)) {
+            if (lease == null) {
+                sender.sendMessage(BUSY_MESSAGE);
+                return true;
+            }
+            totals = BankRollupDB.report(lease.connection(), from, to);
+        } catch (SQLException e) {
+            sender.sendMessage("§cFailed to build bank report.");
+            e.printStackTrace();
+            return true;
+        }
+
+        sender.sendMessage("§aBank activity from §e" + from + "§a to §e" + to + "§a:");
+        if (totals.isEmpty()) {
+            sender.sendMessage("§7No activity recorded.");
+        }
+        for (BankRollupDB.Total total : totals) {
+            sender.sendMessage("§e" + total.coinType() + " " + total.changeType() + "§a: §e" + total.total()
+                    + " §7(" + total.entries() + " entries)");
+        }
         return true;
     }
 }
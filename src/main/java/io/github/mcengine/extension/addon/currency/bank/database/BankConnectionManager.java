@@ -0,0 +1,342 @@
+package io.github.mcengine.extension.addon.currency.bank.database;
+
+import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
+import io.github.mcengine.common.currency.MCEngineCurrencyCommon;
+import org.bukkit.plugin.Plugin;
+
+import java.sql.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Owns the connections used by the bank add-on.
+ * <p>
+ * Reads (balances, history) are served from a small pool of read-only connections so they
+ * never queue behind interest payouts. Writes go through a single writer connection guarded
+ * by {@link #writeLock()}. All of them are dedicated to the add-on:
+ * <ul>
+ *     <li><b>SQLite</b> — the database is switched to WAL mode, and the writer and readers are
+ *     opened on the same file as the shared currency connection.</li>
+ *     <li><b>MySQL</b> — the writer connects to {@code bank.database.url} with
+ *     {@code bank.database.user} / {@code bank.database.password}. When unset, the URL is that of the
+ *     shared connection and the user and password are the {@code database.mysql.*} credentials
+ *     currency-common itself connects with. Readers connect to {@code bank.database.replica.url}
+ *     when configured, otherwise to the same primary. {@link #readPrimary()} always reads the
+ *     primary, for work that must not lag behind the writer.</li>
+ * </ul>
+ * The shared currency connection is used for wallet calls only; the add-on never opens
+ * transactions on it and never closes it. If the dedicated connections cannot be opened,
+ * {@link #init} fails instead of falling back to the shared connection.
+ */
+public class BankConnectionManager {
+
+    /** Milliseconds SQLite waits on a locked database before failing. */
+    private static final int SQLITE_BUSY_TIMEOUT = 5000;
+
+    /** Config key currency-common reads its MySQL user from. */
+    private static final String SHARED_USER = "database.mysql.user";
+
+    /** Config key currency-common reads its MySQL password from. */
+    private static final String SHARED_PASSWORD = "database.mysql.password";
+
+    /** Idle read-only connections; {@code null} until {@link #init} succeeds. */
+    private static volatile BlockingQueue<Connection> readers;
+
+    /**
+     * Idle read-only connections to the primary; the same pool as {@link #readers} unless a replica
+     * is configured. {@code null} until {@link #init} succeeds.
+     */
+    private static volatile BlockingQueue<Connection> primaryReaders;
+
+    /** Connection used for all add-on writes; {@code null} until {@link #init} succeeds. */
+    private static volatile Connection writer;
+
+    /** Serialises write transactions on {@link #writer}. */
+    private static final ReentrantLock WRITE_LOCK = new ReentrantLock();
+
+    /**
+     * A borrowed read connection; closing the lease returns it to the pool.
+     */
+    public static final class Lease implements AutoCloseable {
+
+        /** The borrowed connection. */
+        private final Connection connection;
+
+        /** The pool the connection is returned to. */
+        private final BlockingQueue<Connection> pool;
+
+        private Lease(Connection connection, BlockingQueue<Connection> pool) {
+            this.connection = connection;
+            this.pool = pool;
+        }
+
+        /**
+         * @return The borrowed connection. Do not close it directly.
+         */
+        public Connection connection() {
+            return connection;
+        }
+
+        @Override
+        public void close() {
+            pool.offer(connection);
+        }
+    }
+
+    /**
+     * Opens the writer and reader connections.
+     * Reads the pool size from {@code bank.database.readers} (default 2).
+     *
+     * @param plugin The plugin whose config holds the bank database settings.
+     * @param logger The logger used to report the chosen setup.
+     * @return {@code true} if all connections were opened; otherwise {@code false}, and none are kept.
+     */
+    public static synchronized boolean init(Plugin plugin, MCEngineAddOnLogger logger) {
+        Connection shared = MCEngineCurrencyCommon.getApi().getDBConnection();
+
+        int size = Math.max(1, plugin.getConfig().getInt("bank.database.readers", 2));
+        BlockingQueue<Connection> pool = new ArrayBlockingQueue<>(size);
+        BlockingQueue<Connection> primaryPool = pool;
+        Connection opened = null;
+        boolean replica = false;
+        // The MySQL login being attempted and the config keys that control it, for the error message
+        String target = null;
+        String keys = null;
+
+        try {
+            BankDialect dialect = BankDialect.detect(shared);
+            String url = shared.getMetaData().getURL();
+
+            if (dialect == BankDialect.SQLITE) {
+                if (url.contains(":memory:")) {
+                    throw new SQLException("an in-memory SQLite database cannot be opened by the bank add-on");
+                }
+                opened = openSqlite(url, false);
+                for (int i = 0; i < size; i++) pool.add(openSqlite(url, true));
+            } else {
+                String primaryUrl = plugin.getConfig().getString("bank.database.url", "");
+                String user = plugin.getConfig().getString("bank.database.user", "");
+                String password = plugin.getConfig().getString("bank.database.password", "");
+                if (primaryUrl.isEmpty()) primaryUrl = url;
+                if (user.isEmpty()) user = plugin.getConfig().getString(SHARED_USER, "");
+                if (user.isEmpty()) user = sharedUser(shared);
+                if (password.isEmpty()) password = plugin.getConfig().getString(SHARED_PASSWORD, "");
+
+                target = "'" + user + "' on the primary";
+                keys = "bank.database.url, bank.database.user and bank.database.password";
+                opened = DriverManager.getConnection(primaryUrl, user, password);
+
+                String replicaUrl = plugin.getConfig().getString("bank.database.replica.url", "");
+                replica = !replicaUrl.isEmpty();
+                String readerUrl = replica ? replicaUrl : primaryUrl;
+                String readerUser = replica ? plugin.getConfig().getString("bank.database.replica.user", "") : user;
+                String readerPassword = replica ? plugin.getConfig().getString("bank.database.replica.password", "") : password;
+                if (replica) {
+                    // Jobs that must see every committed write (snapshots) read the primary
+                    primaryPool = new ArrayBlockingQueue<>(1);
+                    Connection primaryReader = DriverManager.getConnection(primaryUrl, user, password);
+                    primaryReader.setReadOnly(true);
+                    primaryPool.add(primaryReader);
+
+                    target = "'" + readerUser + "' on the replica";
+                    keys = "bank.database.replica.url, bank.database.replica.user and bank.database.replica.password";
+                }
+                for (int i = 0; i < size; i++) {
+                    Connection reader = DriverManager.getConnection(readerUrl, readerUser, readerPassword);
+                    reader.setReadOnly(true);
+                    pool.add(reader);
+                }
+            }
+        } catch (SQLException e) {
+            if (keys == null) {
+                logger.warning("Failed to open bank database connections: " + e.getMessage());
+            } else {
+                logger.warning("Failed to connect to the bank database as " + target + ": " + e.getMessage()
+                        + ". Check " + keys + " in config.yml; the bank stays disabled until they are fixed"
+                        + " and the server is restarted.");
+            }
+            close(pool, opened);
+            if (primaryPool != pool) close(primaryPool, null);
+            return false;
+        }
+
+        close(readers, writer);
+        if (primaryReaders != readers) close(primaryReaders, null);
+        writer = opened;
+        readers = pool;
+        primaryReaders = primaryPool;
+        logger.info("Bank connections ready: dedicated writer, " + pool.size() + " reader(s)"
+                + (replica ? " on the replica." : "."));
+        return true;
+    }
+
+    /**
+     * Borrows a read-only connection, waiting for one to become free.
+     * Only call this off the server thread.
+     *
+     * @return A lease to use in try-with-resources.
+     * @throws SQLException If the connections are not open or the wait is interrupted.
+     */
+    public static Lease read() throws SQLException {
+        return take(pool());
+    }
+
+    /**
+     * Borrows a read-only connection to the primary, waiting for one to become free.
+     * Unlike {@link #read()}, it never returns a replica connection, so it sees every committed write.
+     * Only call this off the server thread.
+     *
+     * @return A lease to use in try-with-resources.
+     * @throws SQLException If the connections are not open or the wait is interrupted.
+     */
+    public static Lease readPrimary() throws SQLException {
+        BlockingQueue<Connection> pool = primaryReaders;
+        if (pool == null) {
+            throw new SQLException("Bank connections are not open");
+        }
+        return take(pool);
+    }
+
+    /**
+     * Waits for a free connection in the given pool.
+     *
+     * @param pool The pool to borrow from.
+     * @return A lease that returns the connection to {@code pool}.
+     * @throws SQLException If the wait is interrupted.
+     */
+    private static Lease take(BlockingQueue<Connection> pool) throws SQLException {
+        try {
+            return new Lease(pool.take(), pool);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("interrupted while waiting for a bank read connection", e);
+        }
+    }
+
+    /**
+     * Borrows a read-only connection, giving up after a bounded wait.
+     * Use this on the server thread.
+     *
+     * @param timeoutMillis The longest time to wait for a free connection.
+     * @return A lease to use in try-with-resources, or {@code null} if none became free in time.
+     * @throws SQLException If the connections are not open.
+     */
+    public static Lease tryRead(long timeoutMillis) throws SQLException {
+        BlockingQueue<Connection> pool = pool();
+        try {
+            Connection conn = pool.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+            return conn == null ? null : new Lease(conn, pool);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * @return The connection used for add-on writes. Never close it.
+     * @throws IllegalStateException If {@link #init} has not succeeded.
+     */
+    public static Connection writer() {
+        Connection current = writer;
+        if (current == null) {
+            throw new IllegalStateException("Bank connections are not open");
+        }
+        return current;
+    }
+
+    /**
+     * @return The lock to hold for the duration of any write or write transaction on {@link #writer()}.
+     */
+    public static ReentrantLock writeLock() {
+        return WRITE_LOCK;
+    }
+
+    /**
+     * Acquires {@link #writeLock()}, giving up after a bounded wait.
+     * Use this on the server thread; unlock in a {@code finally} block when it returns {@code true}.
+     *
+     * @param timeoutMillis The longest time to wait for the lock.
+     * @return {@code true} if the lock is now held.
+     */
+    public static boolean tryWriteLock(long timeoutMillis) {
+        try {
+            return WRITE_LOCK.tryLock(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * @return The reader pool.
+     * @throws SQLException If {@link #init} has not succeeded.
+     */
+    private static BlockingQueue<Connection> pool() throws SQLException {
+        BlockingQueue<Connection> pool = readers;
+        if (pool == null) {
+            throw new SQLException("Bank connections are not open");
+        }
+        return pool;
+    }
+
+    /**
+     * Opens a dedicated SQLite connection on the given database file.
+     *
+     * @param url      The JDBC URL of the shared connection.
+     * @param readOnly {@code true} for a query-only reader, {@code false} for the writer.
+     * @return The opened connection.
+     * @throws SQLException If the connection cannot be opened.
+     */
+    private static Connection openSqlite(String url, boolean readOnly) throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        try (Statement statement = conn.createStatement()) {
+            statement.execute("PRAGMA busy_timeout = " + SQLITE_BUSY_TIMEOUT + ";");
+            if (readOnly) {
+                statement.execute("PRAGMA query_only = ON;");
+            } else {
+                statement.execute("PRAGMA journal_mode = WAL;");
+            }
+        }
+        return conn;
+    }
+
+    /**
+     * Resolves the user name of the shared connection, without the {@code @host} suffix MySQL reports.
+     *
+     * @param shared The shared currency connection.
+     * @return The user name, or an empty string if unknown.
+     * @throws SQLException If the metadata cannot be read.
+     */
+    private static String sharedUser(Connection shared) throws SQLException {
+        String user = shared.getMetaData().getUserName();
+        if (user == null) return "";
+        int host = user.indexOf('@');
+        return host < 0 ? user : user.substring(0, host);
+    }
+
+    /**
+     * Closes connections opened by the add-on.
+     *
+     * @param pool  Reader connections to close; may be {@code null}.
+     * @param owned  Writer connection to close; may be {@code null}.
+     */
+    private static void close(BlockingQueue<Connection> pool, Connection owned) {
+        if (pool != null) {
+            for (Connection conn : pool) {
+                try {
+                    conn.close();
+                } catch (SQLException ignored) {
+                }
+            }
+            pool.clear();
+        }
+        if (owned != null) {
+            try {
+                owned.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+}
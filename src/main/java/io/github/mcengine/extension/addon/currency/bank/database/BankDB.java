@@ -2,6 +2,9 @@ package io.github.mcengine.extension.addon.currency.bank.database;
 
 import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
 import io.github.mcengine.common.currency.MCEngineCurrencyCommon;
+import io.github.mcengine.extension.addon.currency.bank.database.migration.BankMigrationRunner;
+import io.github.mcengine.extension.addon.currency.bank.registry.BankCoinRegistry;
+import io.github.mcengine.extension.addon.currency.bank.snapshot.BalanceSnapshotStore;
 import org.bukkit.OfflinePlayer;
 
 import java.sql.*;
@@ -19,46 +22,25 @@ import java.sql.*;
 public class BankDB {
 
     /**
-     * Creates the required database tables for the bank system if they do not already exist.
+     * Creates the required database tables for the bank system and migrates them to the latest schema.
      * <p>
      * Tables:
      * <ul>
      *     <li><b>currency_bank</b> — Stores player balances per coin type and interest metadata.</li>
      *     <li><b>currency_bank_history</b> — Logs deposits and withdrawals with coin and change type.</li>
+     *     <li><b>currency_bank_schema_version</b> — Records applied schema migrations.</li>
      * </ul>
      *
-     * @param conn   The SQL {@link Connection} used for executing table creation statements.
+     * @param conn   The SQL {@link Connection} used for executing migration statements.
      * @param logger The logger used to report success or failure during execution.
+     * @return {@code true} if the tables are at the latest schema version; otherwise {@code false}.
      */
-    public static void createDBTable(Connection conn, MCEngineAddOnLogger logger) {
-        String sql1 = "CREATE TABLE IF NOT EXISTS currency_bank (" +
-                "bank_id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "uuid VARCHAR(36) NOT NULL, " +
-                "coin_type TEXT CHECK(coin_type IN ('coin', 'copper', 'silver', 'gold')) NOT NULL, " +
-                "balance DOUBLE DEFAULT 0.0, " +
-                "interest_rate DOUBLE DEFAULT 0.0, " +
-                "last_interest_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-                "UNIQUE(uuid, coin_type)" +
-                ");";
-
-        String sql2 = "CREATE TABLE IF NOT EXISTS currency_bank_history (" +
-                "history_id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                "uuid VARCHAR(36), " +
-                "change_amount DOUBLE, " +
-                "change_type TEXT CHECK(change_type IN ('deposit', 'withdraw')) NOT NULL, " +
-                "coin_type TEXT CHECK(coin_type IN ('coin', 'copper', 'silver', 'gold')) NOT NULL, " +
-                "note TEXT, " +
-                "created_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                ");";
-
-        try (Statement statement = conn.createStatement()) {
-            statement.executeUpdate(sql1);
-            statement.executeUpdate(sql2);
-            logger.info("Bank and bank history tables created or already exist.");
-        } catch (SQLException e) {
-            logger.warning("Failed to create bank tables: " + e.getMessage());
-            e.printStackTrace();
+    public static boolean createDBTable(Connection conn, MCEngineAddOnLogger logger) {
+        if (!BankMigrationRunner.migrate(conn, logger)) {
+            return false;
         }
+        logger.info("Bank and bank history tables are up to date.");
+        return true;
     }
 
     /**
@@ -70,15 +52,16 @@ public class BankDB {
      * @param amount   The amount to deposit.
      */
     public static void deposit(Connection conn, OfflinePlayer player, String coinType, double amount) {
-        String uuid = player.getUniqueId().toString();
+        byte[] uuid = BankSchema.toBytes(player.getUniqueId());
+        int coin = BankCoinRegistry.code(coinType);
         MCEngineCurrencyCommon.getApi().minusCoin(player.getUniqueId(), coinType, amount);
 
         try {
             boolean exists;
             String checkSql = "SELECT 1 FROM currency_bank WHERE uuid = ? AND coin_type = ? LIMIT 1;";
             try (PreparedStatement stmt = conn.prepareStatement(checkSql)) {
-                stmt.setString(1, uuid);
-                stmt.setString(2, coinType);
+                stmt.setBytes(1, uuid);
+                stmt.setInt(2, coin);
                 try (ResultSet rs = stmt.executeQuery()) {
                     exists = rs.next();
                 }
@@ -88,29 +71,34 @@ public class BankDB {
                 try (PreparedStatement update = conn.prepareStatement(
                         "UPDATE currency_bank SET balance = balance + ? WHERE uuid = ? AND coin_type = ?;")) {
                     update.setDouble(1, amount);
-                    update.setString(2, uuid);
-                    update.setString(3, coinType);
+                    update.setBytes(2, uuid);
+                    update.setInt(3, coin);
                     update.executeUpdate();
                 }
             } else {
                 try (PreparedStatement insert = conn.prepareStatement(
                         "INSERT INTO currency_bank (uuid, coin_type, balance) VALUES (?, ?, ?);")) {
-                    insert.setString(1, uuid);
-                    insert.setString(2, coinType);
+                    insert.setBytes(1, uuid);
+                    insert.setInt(2, coin);
                     insert.setDouble(3, amount);
                     insert.executeUpdate();
                 }
             }
 
+            long historyId;
             try (PreparedStatement log = conn.prepareStatement(
                     "INSERT INTO currency_bank_history (uuid, change_amount, change_type, coin_type, note) " +
-                            "VALUES (?, ?, 'deposit', ?, 'System/Interest/Deposit');")) {
-                log.setString(1, uuid);
+                            "VALUES (?, ?, " + BankSchema.CHANGE_DEPOSIT + ", ?, 'System/Interest/Deposit');",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                log.setBytes(1, uuid);
                 log.setDouble(2, amount);
-                log.setString(3, coinType);
+                log.setInt(3, coin);
                 log.executeUpdate();
+                historyId = generatedId(log);
             }
 
+            BalanceSnapshotStore.markDirty(player.getUniqueId(), coin, historyId);
+
             if (player.isOnline()) {
                 player.getPlayer().sendMessage("§aDeposited " + amount + " " + coinType + " into your bank.");
             }
@@ -134,12 +122,13 @@ public class BankDB {
     public static void withdraw(Connection conn, OfflinePlayer player, String coinType, double amount) {
         if (!player.isOnline() || player.getPlayer() == null) return;
 
-        String uuid = player.getUniqueId().toString();
+        byte[] uuid = BankSchema.toBytes(player.getUniqueId());
+        int coin = BankCoinRegistry.code(coinType);
 
         try (PreparedStatement stmt = conn.prepareStatement(
                 "SELECT balance FROM currency_bank WHERE uuid = ? AND coin_type = ?;")) {
-            stmt.setString(1, uuid);
-            stmt.setString(2, coinType);
+            stmt.setBytes(1, uuid);
+            stmt.setInt(2, coin);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (!rs.next()) {
@@ -156,20 +145,24 @@ public class BankDB {
                 try (PreparedStatement update = conn.prepareStatement(
                         "UPDATE currency_bank SET balance = balance - ? WHERE uuid = ? AND coin_type = ?;")) {
                     update.setDouble(1, amount);
-                    update.setString(2, uuid);
-                    update.setString(3, coinType);
+                    update.setBytes(2, uuid);
+                    update.setInt(3, coin);
                     update.executeUpdate();
                 }
 
+                long historyId;
                 try (PreparedStatement log = conn.prepareStatement(
                         "INSERT INTO currency_bank_history (uuid, change_amount, change_type, coin_type, note) " +
-                                "VALUES (?, ?, 'withdraw', ?, 'Player withdrawal');")) {
-                    log.setString(1, uuid);
+                                "VALUES (?, ?, " + BankSchema.CHANGE_WITHDRAW + ", ?, 'Player withdrawal');",
+                        Statement.RETURN_GENERATED_KEYS)) {
+                    log.setBytes(1, uuid);
                     log.setDouble(2, amount);
-                    log.setString(3, coinType);
+                    log.setInt(3, coin);
                     log.executeUpdate();
+                    historyId = generatedId(log);
                 }
 
+                BalanceSnapshotStore.markDirty(player.getUniqueId(), coin, historyId);
                 MCEngineCurrencyCommon.getApi().addCoin(player.getUniqueId(), coinType, amount);
                 player.getPlayer().sendMessage("§aWithdrew " + amount + " " + coinType + " from your bank.");
             }
@@ -188,12 +181,13 @@ public class BankDB {
      * @return The balance as a double, or 0.0 if not found or on error.
      */
     public static double getBankBalance(Connection conn, OfflinePlayer player, String coinType) {
-        String uuid = player.getUniqueId().toString();
+        byte[] uuid = BankSchema.toBytes(player.getUniqueId());
+        int coin = BankCoinRegistry.code(coinType);
         String query = "SELECT balance FROM currency_bank WHERE uuid = ? AND coin_type = ?;";
 
         try (PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, uuid);
-            stmt.setString(2, coinType);
+            stmt.setBytes(1, uuid);
+            stmt.setInt(2, coin);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
                     return rs.getDouble("balance");
@@ -208,4 +202,17 @@ public class BankDB {
 
         return 0.0;
     }
+
+    /**
+     * Reads the id generated by a history insert.
+     *
+     * @param insert The executed insert, prepared with {@link Statement#RETURN_GENERATED_KEYS}.
+     * @return The new history id, or {@link Long#MAX_VALUE} if the driver did not report one.
+     * @throws SQLException If the generated keys cannot be read.
+     */
+    private static long generatedId(PreparedStatement insert) throws SQLException {
+        try (ResultSet keys = insert.getGeneratedKeys()) {
+            return keys.next() ? keys.getLong(1) : Long.MAX_VALUE;
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package io.github.mcengine.extension.addon.currency.bank.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * SQL dialects supported by the bank schema.
+ * <p>
+ * The shared currency connection may point at SQLite or MySQL; the few DDL fragments
+ * that differ between the two are resolved here so migrations can stay dialect-agnostic.
+ */
+public enum BankDialect {
+
+    /** SQLite (default for single-server installs). */
+    SQLITE("INTEGER PRIMARY KEY AUTOINCREMENT", "BLOB", " WITHOUT ROWID"),
+
+    /** MySQL / MariaDB. */
+    MYSQL("BIGINT PRIMARY KEY AUTO_INCREMENT", "BINARY(16)", "");
+
+    /** Column definition for a surrogate auto-increment primary key. */
+    private final String autoIncrementKey;
+
+    /** Column type used to store a UUID as 16 raw bytes. */
+    private final String uuidType;
+
+    /** Table options that store rows inside the primary key index. */
+    private final String clusteredOptions;
+
+    BankDialect(String autoIncrementKey, String uuidType, String clusteredOptions) {
+        this.autoIncrementKey = autoIncrementKey;
+        this.uuidType = uuidType;
+        this.clusteredOptions = clusteredOptions;
+    }
+
+    /**
+     * @return The column definition for an auto-increment primary key.
+     */
+    public String autoIncrementKey() {
+        return autoIncrementKey;
+    }
+
+    /**
+     * @return The column type used for 16-byte binary UUIDs.
+     */
+    public String uuidType() {
+        return uuidType;
+    }
+
+    /**
+     * @return Options appended to {@code CREATE TABLE} so rows live in the primary key index
+     * ({@code WITHOUT ROWID} on SQLite; InnoDB clusters on the primary key already).
+     */
+    public String clusteredOptions() {
+        return clusteredOptions;
+    }
+
+    /**
+     * Detects the dialect of the given connection from its driver metadata.
+     *
+     * @param conn The SQL connection.
+     * @return {@link #MYSQL} for MySQL/MariaDB drivers, otherwise {@link #SQLITE}.
+     * @throws SQLException If the metadata cannot be read.
+     */
+    public static BankDialect detect(Connection conn) throws SQLException {
+        String product = conn.getMetaData().getDatabaseProductName().toLowerCase();
+        if (product.contains("mysql") || product.contains("mariadb")) {
+            return MYSQL;
+        }
+        return SQLITE;
+    }
+}
@@ -0,0 +1,233 @@
+package io.github.mcengine.extension.addon.currency.bank.database;
+
+import io.github.mcengine.extension.addon.currency.bank.interest.InterestTable;
+import io.github.mcengine.extension.addon.currency.bank.snapshot.BalanceSnapshotStore;
+
+import java.sql.*;
+import java.util.Arrays;
+
+/**
+ * Applies compiled interest tables to stored bank balances.
+ * <p>
+ * Two strategies are offered:
+ * <ul>
+ *     <li>{@link #applyChunked} — reads accounts in primary key order, computes interest in Java
+ *     and writes each chunk in its own transaction, keeping locks short.</li>
+ *     <li>{@link #applySetBased} — pushes the table into SQL as a {@code CASE} expression and pays
+ *     accounts in {@value #SET_BASED_SLICES} uuid ranges, one transaction each.</li>
+ * </ul>
+ * Interest is credited to the bank balance only; the player's wallet is never touched.
+ * Both hold {@link BankConnectionManager#writeLock()} only while one chunk or range is open, so
+ * player commands waiting on the lock are never held up by a whole payout. Both
+ * invalidate the balance snapshot before and after the payout so no snapshot taken mid-payout is used.
+ */
+public class BankInterestDB {
+
+    /** History note recorded for interest payouts. */
+    private static final String NOTE = "System/Interest/Deposit";
+
+    /** Number of uuid ranges a set-based payout is split into, each committed separately. */
+    private static final int SET_BASED_SLICES = 16;
+
+    /**
+     * Pays interest to every account of one coin type, chunk by chunk.
+     *
+     * @param conn      The database connection.
+     * @param coin      The coin type ordinal being paid.
+     * @param table     The compiled interest table for that coin type.
+     * @param chunkSize The number of accounts per chunk.
+     * @return The number of accounts credited.
+     * @throws SQLException If a chunk fails; earlier chunks stay committed.
+     */
+    public static int applyChunked(Connection conn, int coin, InterestTable table, int chunkSize) throws SQLException {
+        BalanceSnapshotStore.invalidate();
+        try {
+            return payChunked(conn, coin, table, chunkSize);
+        } finally {
+            BalanceSnapshotStore.invalidate();
+        }
+    }
+
+    /**
+     * Body of {@link #applyChunked}.
+     */
+    private static int payChunked(Connection conn, int coin, InterestTable table, int chunkSize) throws SQLException {
+        byte[][] uuids = new byte[chunkSize][];
+        double[] balances = new double[chunkSize];
+        double[] interest = new double[chunkSize];
+
+        int credited = 0;
+        byte[] lastUuid = null;
+
+        try (PreparedStatement first = conn.prepareStatement(
+                "SELECT uuid, balance FROM currency_bank " +
+                        "WHERE coin_type = ? AND balance >= ? ORDER BY uuid LIMIT ?;");
+             PreparedStatement next = conn.prepareStatement(
+                     "SELECT uuid, balance FROM currency_bank " +
+                             "WHERE coin_type = ? AND balance >= ? AND uuid > ? ORDER BY uuid LIMIT ?;");
+             PreparedStatement update = conn.prepareStatement(
+                     "UPDATE currency_bank SET balance = balance + ?, last_interest_time = CURRENT_TIMESTAMP " +
+                             "WHERE uuid = ? AND coin_type = ?;");
+             PreparedStatement log = conn.prepareStatement(
+                     "INSERT INTO currency_bank_history (uuid, change_amount, change_type, coin_type, note) " +
+                             "VALUES (?, ?, " + BankSchema.CHANGE_INTEREST + ", ?, '" + NOTE + "');")) {
+            while (true) {
+                PreparedStatement select = lastUuid == null ? first : next;
+                select.setInt(1, coin);
+                select.setDouble(2, table.minimumBalance());
+                if (lastUuid == null) {
+                    select.setInt(3, chunkSize);
+                } else {
+                    select.setBytes(3, lastUuid);
+                    select.setInt(4, chunkSize);
+                }
+
+                int count = 0;
+                BankConnectionManager.writeLock().lock();
+                try {
+                    boolean autoCommit = conn.getAutoCommit();
+                    conn.setAutoCommit(false);
+                    try {
+                        try (ResultSet rs = select.executeQuery()) {
+                            while (rs.next()) {
+                                uuids[count] = rs.getBytes(1);
+                                balances[count] = rs.getDouble(2);
+                                count++;
+                            }
+                        }
+
+                        table.interestFor(balances, count, interest);
+                        credited += addChunk(update, log, coin, uuids, interest, count);
+
+                        update.executeBatch();
+                        log.executeBatch();
+                        conn.commit();
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(autoCommit);
+                    }
+                } finally {
+                    BankConnectionManager.writeLock().unlock();
+                }
+
+                if (count < chunkSize) break;
+                lastUuid = uuids[count - 1];
+            }
+        }
+
+        return credited;
+    }
+
+    /**
+     * Adds the balance update and history row for every positive payout in a chunk to the batches.
+     *
+     * @return The number of accounts added.
+     */
+    private static int addChunk(PreparedStatement update, PreparedStatement log, int coin,
+                                byte[][] uuids, double[] interest, int count) throws SQLException {
+        int added = 0;
+        for (int i = 0; i < count; i++) {
+            if (interest[i] <= 0) continue;
+
+            update.setDouble(1, interest[i]);
+            update.setBytes(2, uuids[i]);
+            update.setInt(3, coin);
+            update.addBatch();
+
+            log.setBytes(1, uuids[i]);
+            log.setDouble(2, interest[i]);
+            log.setInt(3, coin);
+            log.addBatch();
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * Pays interest to every account of one coin type using two set-based statements per key range.
+     *
+     * @param conn     The database connection.
+     * @param coin     The coin type ordinal being paid.
+     * @param table    The compiled interest table for that coin type.
+     * @return The number of accounts credited.
+     * @throws SQLException If a slice fails; it is rolled back and earlier slices stay committed.
+     */
+    public static int applySetBased(Connection conn, int coin, InterestTable table) throws SQLException {
+        BalanceSnapshotStore.invalidate();
+        try {
+            return paySetBased(conn, coin, table);
+        } finally {
+            BalanceSnapshotStore.invalidate();
+        }
+    }
+
+    /**
+     * Body of {@link #applySetBased}.
+     */
+    private static int paySetBased(Connection conn, int coin, InterestTable table) throws SQLException {
+        String interest = table.toSqlCase("balance");
+        String where = " WHERE coin_type = ? AND uuid BETWEEN ? AND ? AND balance >= ? AND (" + interest + ") > 0";
+
+        byte[] low = new byte[16];
+        byte[] high = new byte[16];
+        Arrays.fill(high, (byte) 0xFF);
+
+        int credited = 0;
+        try (PreparedStatement log = conn.prepareStatement(
+                "INSERT INTO currency_bank_history (uuid, change_amount, change_type, coin_type, note) " +
+                        "SELECT uuid, " + interest + ", " + BankSchema.CHANGE_INTEREST + ", coin_type, '" + NOTE + "'" +
+                        " FROM currency_bank" + where + ";");
+             PreparedStatement update = conn.prepareStatement(
+                     "UPDATE currency_bank SET balance = balance + (" + interest + "), " +
+                             "last_interest_time = CURRENT_TIMESTAMP" + where + ";")) {
+            for (int slice = 0; slice < SET_BASED_SLICES; slice++) {
+                // Slice n covers every uuid whose first byte is in [n * 16, n * 16 + 15].
+                low[0] = (byte) (slice << 4);
+                high[0] = (byte) ((slice << 4) | 0x0F);
+                bindSlice(log, coin, low, high, table.minimumBalance());
+                bindSlice(update, coin, low, high, table.minimumBalance());
+                credited += paySlice(conn, log, update);
+            }
+        }
+        return credited;
+    }
+
+    /**
+     * Pays one key range of a set-based payout in its own transaction.
+     *
+     * @return The number of accounts credited.
+     */
+    private static int paySlice(Connection conn, PreparedStatement log, PreparedStatement update) throws SQLException {
+        BankConnectionManager.writeLock().lock();
+        try {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                // History is written first so both statements see the pre-payout balances.
+                log.executeUpdate();
+                int credited = update.executeUpdate();
+                conn.commit();
+                return credited;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } finally {
+            BankConnectionManager.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Binds the coin type, key range and minimum balance of a set-based statement.
+     */
+    private static void bindSlice(PreparedStatement stmt, int coin, byte[] low, byte[] high, double minimum) throws SQLException {
+        stmt.setInt(1, coin);
+        stmt.setBytes(2, low);
+        stmt.setBytes(3, high);
+        stmt.setDouble(4, minimum);
+    }
+}
@@ -0,0 +1,172 @@
+package io.github.mcengine.extension.addon.currency.bank.database;
+
+import io.github.mcengine.extension.addon.currency.bank.registry.BankCoinRegistry;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintains and queries the daily activity rollups in {@code currency_bank_daily_rollup}.
+ * <p>
+ * History rows are folded in by id range above the watermark in {@code currency_bank_rollup_state}.
+ * Each range is aggregated in SQL and committed together with the new watermark, so every
+ * history row is counted exactly once even if a run is interrupted. Days follow the database
+ * clock of {@code created_time} (UTC on SQLite).
+ */
+public class BankRollupDB {
+
+    /**
+     * Total activity for one coin type and change type over a reporting range.
+     *
+     * @param coinType   The coin type name.
+     * @param changeType The change type name.
+     * @param total      The summed amount.
+     * @param entries    The number of history rows.
+     */
+    public record Total(String coinType, String changeType, double total, long entries) {
+    }
+
+    /**
+     * Folds history rows written since the last run into the daily rollups.
+     *
+     * @param conn      The writer connection; only used while holding {@link BankConnectionManager#writeLock()}.
+     * @param batchSize The maximum number of history ids folded per transaction.
+     * @return The id of the last history row now included in the rollups.
+     * @throws SQLException If a batch fails; earlier batches stay committed.
+     */
+    public static long catchUp(Connection conn, long batchSize) throws SQLException {
+        long target;
+        long watermark;
+        // The writer may be inside another thread's transaction unless the lock is held.
+        BankConnectionManager.writeLock().lock();
+        try {
+            try (Statement statement = conn.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT MAX(history_id) FROM currency_bank_history;")) {
+                target = rs.next() ? rs.getLong(1) : 0;
+            }
+            watermark = watermark(conn);
+        } finally {
+            BankConnectionManager.writeLock().unlock();
+        }
+
+        while (watermark < target) {
+            long upper = Math.min(watermark + batchSize, target);
+            BankConnectionManager.writeLock().lock();
+            try {
+                if (!foldRange(conn, watermark, upper)) {
+                    // Another run advanced the watermark first.
+                    return watermark(conn);
+                }
+            } finally {
+                BankConnectionManager.writeLock().unlock();
+            }
+            watermark = upper;
+        }
+        return watermark;
+    }
+
+    /**
+     * Sums activity per coin type and change type between two days, inclusive.
+     *
+     * @param conn The read connection.
+     * @param from The first day.
+     * @param to   The last day.
+     * @return One entry per coin type and change type with activity in the range.
+     * @throws SQLException If the query fails.
+     */
+    public static List<Total> report(Connection conn, LocalDate from, LocalDate to) throws SQLException {
+        List<Total> totals = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT coin_type, change_type, SUM(total), SUM(entries) FROM currency_bank_daily_rollup " +
+                        "WHERE day >= ? AND day <= ? GROUP BY coin_type, change_type ORDER BY coin_type, change_type;")) {
+            stmt.setString(1, from.toString());
+            stmt.setString(2, to.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    totals.add(new Total(
+                            BankCoinRegistry.name(rs.getInt(1)),
+                            BankSchema.changeName(rs.getInt(2)),
+                            rs.getDouble(3),
+                            rs.getLong(4)));
+                }
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Reads the last history id included in the rollups.
+     */
+    private static long watermark(Connection conn) throws SQLException {
+        try (Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT last_history_id FROM currency_bank_rollup_state WHERE id = 1;")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Adds history rows with {@code lower < history_id <= upper} to the rollups and advances
+     * the watermark, in one transaction.
+     *
+     * @return {@code false} if the watermark was no longer at {@code lower}; nothing is changed then.
+     */
+    private static boolean foldRange(Connection conn, long lower, long upper) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement select = conn.prepareStatement(
+                "SELECT DATE(created_time), coin_type, change_type, SUM(change_amount), COUNT(*) " +
+                        "FROM currency_bank_history WHERE history_id > ? AND history_id <= ? " +
+                        "GROUP BY DATE(created_time), coin_type, change_type;");
+             PreparedStatement update = conn.prepareStatement(
+                     "UPDATE currency_bank_daily_rollup SET total = total + ?, entries = entries + ? " +
+                             "WHERE day = ? AND coin_type = ? AND change_type = ?;");
+             PreparedStatement insert = conn.prepareStatement(
+                     "INSERT INTO currency_bank_daily_rollup (day, coin_type, change_type, total, entries) " +
+                             "VALUES (?, ?, ?, ?, ?);");
+             PreparedStatement advance = conn.prepareStatement(
+                     "UPDATE currency_bank_rollup_state SET last_history_id = ? WHERE id = 1 AND last_history_id = ?;")) {
+            advance.setLong(1, upper);
+            advance.setLong(2, lower);
+            if (advance.executeUpdate() == 0) {
+                conn.rollback();
+                return false;
+            }
+
+            select.setLong(1, lower);
+            select.setLong(2, upper);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    String day = rs.getString(1);
+                    int coin = rs.getInt(2);
+                    int change = rs.getInt(3);
+                    double total = rs.getDouble(4);
+                    long entries = rs.getLong(5);
+
+                    update.setDouble(1, total);
+                    update.setLong(2, entries);
+                    update.setString(3, day);
+                    update.setInt(4, coin);
+                    update.setInt(5, change);
+                    if (update.executeUpdate() == 0) {
+                        insert.setString(1, day);
+                        insert.setInt(2, coin);
+                        insert.setInt(3, change);
+                        insert.setDouble(4, total);
+                        insert.setLong(5, entries);
+                        insert.executeUpdate();
+                    }
+                }
+            }
+
+            conn.commit();
+            return true;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.mcengine.extension.addon.currency.bank.database;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Storage encodings for the bank tables.
+ * <p>
+ * UUIDs are stored as 16 raw bytes (most significant half first), and change types are
+ * stored as small integer codes instead of text. Coin type codes are owned by
+ * {@link io.github.mcengine.extension.addon.currency.bank.registry.BankCoinRegistry}.
+ */
+public final class BankSchema {
+
+    /** Change type code for player deposits. */
+    public static final int CHANGE_DEPOSIT = 0;
+
+    /** Change type code for withdrawals. */
+    public static final int CHANGE_WITHDRAW = 1;
+
+    /** Change type code for interest payouts. */
+    public static final int CHANGE_INTEREST = 2;
+
+    /** Change type names indexed by their stored code. */
+    private static final String[] CHANGE_NAMES = {"deposit", "withdraw", "interest"};
+
+    private BankSchema() {
+    }
+
+    /**
+     * Resolves the stored code for a change type string.
+     *
+     * @param changeType "deposit", "withdraw" or "interest".
+     * @return The code, or -1 if the change type is unknown.
+     */
+    public static int changeCode(String changeType) {
+        for (int i = 0; i < CHANGE_NAMES.length; i++) {
+            if (CHANGE_NAMES[i].equals(changeType)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Resolves the change type name for a stored code.
+     *
+     * @param code The stored change type code.
+     * @return The change type name, or {@code null} if the code is unknown.
+     */
+    public static String changeName(int code) {
+        return code >= 0 && code < CHANGE_NAMES.length ? CHANGE_NAMES[code] : null;
+    }
+
+    /**
+     * Encodes a UUID into its 16-byte storage form.
+     *
+     * @param uuid The UUID.
+     * @return 16 bytes, most significant half first.
+     */
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * Decodes a UUID from its 16-byte storage form.
+     *
+     * @param bytes 16 bytes, most significant half first.
+     * @return The UUID.
+     */
+    public static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.mcengine.extension.addon.currency.bank.database.migration;
+
+import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
+import io.github.mcengine.extension.addon.currency.bank.database.BankDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A single, ordered step of the bank schema.
+ * <p>
+ * Migrations are applied once each, in ascending {@link #version()} order, by
+ * {@link BankMigrationRunner}. Every migration runs inside its own transaction and must be safe to
+ * run again on a schema it has already partly applied (MySQL does not roll back DDL).
+ */
+public interface BankMigration {
+
+    /**
+     * @return The schema version this migration produces. Must be unique and increasing.
+     */
+    int version();
+
+    /**
+     * @return A short human-readable description stored in the version table.
+     */
+    String description();
+
+    /**
+     * Applies the migration.
+     *
+     * @param conn    The SQL connection, with auto-commit disabled.
+     * @param dialect The SQL dialect of the connection.
+     * @param logger  The logger used to report anything the step could not carry over.
+     * @throws SQLException If any statement fails; the runner rolls the step back.
+     */
+    void apply(Connection conn, BankDialect dialect, MCEngineAddOnLogger logger) throws SQLException;
+}
@@ -0,0 +1,109 @@
+package io.github.mcengine.extension.addon.currency.bank.database.migration;
+
+import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
+import io.github.mcengine.extension.addon.currency.bank.database.BankDialect;
+
+import java.sql.*;
+import java.util.List;
+
+/**
+ * Applies pending bank schema migrations and records them in {@code currency_bank_schema_version}.
+ * <p>
+ * Each migration runs in its own transaction together with the insert of its version row,
+ * so a failed step leaves the schema at the previous version and is retried on the next start.
+ * MySQL commits DDL implicitly, so there a failed step may leave partial DDL behind; every
+ * migration is therefore re-runnable and skips or resumes work an earlier attempt already did.
+ */
+public class BankMigrationRunner {
+
+    /**
+     * All known migrations in ascending version order.
+     */
+    private static final List<BankMigration> MIGRATIONS = List.of(
+            new V1LegacyTables(),
+            new V2CompactKeys(),
+            new V3ClusteredBalanceKey(),
+            new V4DailyRollups(),
+            new V5CoinTypeRegistry()
+    );
+
+    /**
+     * Brings the bank schema up to the latest version.
+     *
+     * @param conn   The SQL connection.
+     * @param logger The logger used to report applied or failed migrations.
+     * @return {@code true} if the schema is at the latest version; otherwise {@code false}.
+     */
+    public static boolean migrate(Connection conn, MCEngineAddOnLogger logger) {
+        try {
+            BankDialect dialect = BankDialect.detect(conn);
+
+            try (Statement statement = conn.createStatement()) {
+                statement.executeUpdate("CREATE TABLE IF NOT EXISTS currency_bank_schema_version (" +
+                        "version INTEGER PRIMARY KEY, " +
+                        "description VARCHAR(255) NOT NULL, " +
+                        "applied_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                        ");");
+            }
+
+            int current = currentVersion(conn);
+            for (BankMigration migration : MIGRATIONS) {
+                if (migration.version() <= current) continue;
+
+                apply(conn, dialect, migration, logger);
+                logger.info("Applied bank schema migration V" + migration.version() + ": " + migration.description());
+            }
+            return true;
+        } catch (SQLException e) {
+            logger.warning("Failed to migrate bank tables: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Reads the highest applied schema version.
+     *
+     * @param conn The SQL connection.
+     * @return The current version, or 0 for a fresh database.
+     * @throws SQLException If the version table cannot be read.
+     */
+    private static int currentVersion(Connection conn) throws SQLException {
+        try (Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT MAX(version) FROM currency_bank_schema_version;")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Applies a single migration and records its version in one transaction.
+     *
+     * @param conn      The SQL connection.
+     * @param dialect   The SQL dialect.
+     * @param migration The migration to apply.
+     * @param logger    The logger passed to the migration.
+     * @throws SQLException If the migration fails; the transaction is rolled back first.
+     */
+    private static void apply(Connection conn, BankDialect dialect, BankMigration migration,
+                              MCEngineAddOnLogger logger) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            migration.apply(conn, dialect, logger);
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO currency_bank_schema_version (version, description) VALUES (?, ?);")) {
+                stmt.setInt(1, migration.version());
+                stmt.setString(2, migration.description());
+                stmt.executeUpdate();
+            }
+
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException("V" + migration.version() + " (" + migration.description() + "): " + e.getMessage(), e);
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+}
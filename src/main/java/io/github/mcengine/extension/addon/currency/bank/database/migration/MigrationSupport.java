@@ -0,0 +1,59 @@
+package io.github.mcengine.extension.addon.currency.bank.database.migration;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Schema lookups used by migrations to skip work an earlier, interrupted attempt already did.
+ * <p>
+ * MySQL commits DDL implicitly, so a failed step cannot be rolled back there; every step
+ * checks the current schema instead of assuming it starts from the previous version.
+ */
+final class MigrationSupport {
+
+    private MigrationSupport() {
+    }
+
+    /**
+     * @param conn  The SQL connection.
+     * @param table The table name, lower case.
+     * @return {@code true} if the table exists in the connection's database.
+     * @throws SQLException If the metadata cannot be read.
+     */
+    static boolean tableExists(Connection conn, String table) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getTables(conn.getCatalog(), null, table, null)) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * @param conn   The SQL connection.
+     * @param table  The table name, lower case.
+     * @param column The column name, lower case.
+     * @return {@code true} if the table has the column.
+     * @throws SQLException If the metadata cannot be read.
+     */
+    static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, table, column)) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * @param conn   The SQL connection.
+     * @param table  The table name, lower case.
+     * @param column The column name, lower case.
+     * @return The upper-case declared type name of the column, or an empty string if it does not exist.
+     * @throws SQLException If the metadata cannot be read.
+     */
+    static String columnType(Connection conn, String table, String column) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, table, column)) {
+            return rs.next() ? rs.getString("TYPE_NAME").toUpperCase() : "";
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.mcengine.extension.addon.currency.bank.database.migration;
+
+import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
+import io.github.mcengine.extension.addon.currency.bank.database.BankDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Baseline migration: the original text-keyed bank tables.
+ * <p>
+ * Uses {@code IF NOT EXISTS} so installs created before schema versioning are adopted as-is
+ * and upgraded by the following migrations.
+ */
+class V1LegacyTables implements BankMigration {
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public String description() {
+        return "legacy bank and history tables";
+    }
+
+    @Override
+    public void apply(Connection conn, BankDialect dialect, MCEngineAddOnLogger logger) throws SQLException {
+        String sql1 = "CREATE TABLE IF NOT EXISTS currency_bank (" +
+                "bank_id " + dialect.autoIncrementKey() + ", " +
+                "uuid VARCHAR(36) NOT NULL, " +
+                "coin_type VARCHAR(16) CHECK(coin_type IN ('coin', 'copper', 'silver', 'gold')) NOT NULL, " +
+                "balance DOUBLE DEFAULT 0.0, " +
+                "interest_rate DOUBLE DEFAULT 0.0, " +
+                "last_interest_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                "UNIQUE(uuid, coin_type)" +
+                ");";
+
+        String sql2 = "CREATE TABLE IF NOT EXISTS currency_bank_history (" +
+                "history_id " + dialect.autoIncrementKey() + ", " +
+                "uuid VARCHAR(36), " +
+                "change_amount DOUBLE, " +
+                "change_type VARCHAR(16) CHECK(change_type IN ('deposit', 'withdraw')) NOT NULL, " +
+                "coin_type VARCHAR(16) CHECK(coin_type IN ('coin', 'copper', 'silver', 'gold')) NOT NULL, " +
+                "note TEXT, " +
+                "created_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                ");";
+
+        try (Statement statement = conn.createStatement()) {
+            statement.executeUpdate(sql1);
+            statement.executeUpdate(sql2);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package io.github.mcengine.extension.addon.currency.bank.database.migration;
+
+import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
+import io.github.mcengine.extension.addon.currency.bank.database.BankDialect;
+import io.github.mcengine.extension.addon.currency.bank.database.BankSchema;
+
+import java.sql.*;
+import java.util.UUID;
+
+/**
+ * Rebuilds the bank tables with 16-byte binary UUIDs and small integer coin/change type codes.
+ * <p>
+ * Rows are copied in batches through JDBC because neither SQLite nor MySQL offers a portable
+ * UUID-to-binary conversion in SQL. Timestamps are copied as stored so SQLite keeps its text form.
+ * <p>
+ * Rows that cannot be converted (malformed UUID, unknown coin or change type) are never dropped:
+ * they are copied verbatim into {@code currency_bank_v2_rejected} with the reason, and the number
+ * of rows set aside is logged, so an administrator can repair and re-import them.
+ * <p>
+ * The compact tables are built as {@code *_new} and swapped in by renaming the legacy tables to
+ * {@code *_legacy} first, which are dropped last. A run interrupted after the copy (MySQL commits
+ * each DDL statement) finishes the swap on the next start instead of copying again.
+ */
+class V2CompactKeys implements BankMigration {
+
+    /** The fixed coin set of the legacy schema; the array index is the assigned code. */
+    static final String[] LEGACY_COIN_TYPES = {"coin", "copper", "silver", "gold"};
+
+    /** Number of rows inserted per JDBC batch while copying. */
+    private static final int BATCH_SIZE = 1000;
+
+    /** Table holding legacy rows that could not be converted. */
+    private static final String REJECTED_TABLE = "currency_bank_v2_rejected";
+
+    @Override
+    public int version() {
+        return 2;
+    }
+
+    @Override
+    public String description() {
+        return "binary uuid and coin type codes";
+    }
+
+    @Override
+    public void apply(Connection conn, BankDialect dialect, MCEngineAddOnLogger logger) throws SQLException {
+        if (MigrationSupport.tableExists(conn, "currency_bank_legacy")
+                || MigrationSupport.tableExists(conn, "currency_bank_history_legacy")) {
+            // An earlier attempt finished copying and stopped while swapping the tables in.
+            swapTables(conn);
+            return;
+        }
+
+        String coinType = MigrationSupport.columnType(conn, "currency_bank", "coin_type");
+        if (!coinType.contains("CHAR") && !coinType.contains("TEXT")) {
+            // Already compact; only the version row was missing.
+            return;
+        }
+
+        try (Statement statement = conn.createStatement()) {
+            statement.executeUpdate("DROP TABLE IF EXISTS currency_bank_new;");
+            statement.executeUpdate("DROP TABLE IF EXISTS currency_bank_history_new;");
+
+            statement.executeUpdate("CREATE TABLE currency_bank_new (" +
+                    "bank_id " + dialect.autoIncrementKey() + ", " +
+                    "uuid " + dialect.uuidType() + " NOT NULL, " +
+                    "coin_type SMALLINT NOT NULL, " +
+                    "balance DOUBLE DEFAULT 0.0, " +
+                    "interest_rate DOUBLE DEFAULT 0.0, " +
+                    "last_interest_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                    "UNIQUE(uuid, coin_type)" +
+                    ");");
+
+            statement.executeUpdate("CREATE TABLE currency_bank_history_new (" +
+                    "history_id " + dialect.autoIncrementKey() + ", " +
+                    "uuid " + dialect.uuidType() + ", " +
+                    "change_amount DOUBLE, " +
+                    "change_type SMALLINT NOT NULL, " +
+                    "coin_type SMALLINT NOT NULL, " +
+                    "note TEXT, " +
+                    "created_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ");");
+
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + REJECTED_TABLE + " (" +
+                    "source_table VARCHAR(32) NOT NULL, " +
+                    "source_id BIGINT NOT NULL, " +
+                    "reason VARCHAR(32) NOT NULL, " +
+                    "uuid VARCHAR(255), " +
+                    "coin_type VARCHAR(255), " +
+                    "change_type VARCHAR(255), " +
+                    "amount DOUBLE, " +
+                    "note TEXT, " +
+                    "recorded_time TIMESTAMP NULL" +
+                    ");");
+            // Rows left by an earlier attempt are still in the legacy tables and are rejected again below.
+            statement.executeUpdate("DELETE FROM " + REJECTED_TABLE + ";");
+        }
+
+        try (PreparedStatement reject = conn.prepareStatement("INSERT INTO " + REJECTED_TABLE +
+                " (source_table, source_id, reason, uuid, coin_type, change_type, amount, note, recorded_time) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?);")) {
+            int balances = copyBalances(conn, reject);
+            int history = copyHistory(conn, reject);
+            if (balances + history > 0) {
+                logger.warning("Bank schema V2: " + balances + " balance row(s) and " + history + " history row(s) "
+                        + "could not be converted and were moved to " + REJECTED_TABLE + ".");
+            }
+        }
+
+        swapTables(conn);
+    }
+
+    /**
+     * Moves the compact tables into place and drops the legacy ones. Safe to repeat.
+     *
+     * @param conn The SQL connection.
+     * @throws SQLException If a rename or drop fails.
+     */
+    private void swapTables(Connection conn) throws SQLException {
+        try (Statement statement = conn.createStatement()) {
+            for (String table : new String[]{"currency_bank", "currency_bank_history"}) {
+                if (!MigrationSupport.tableExists(conn, table + "_new")) continue;
+
+                if (MigrationSupport.tableExists(conn, table)) {
+                    statement.executeUpdate("ALTER TABLE " + table + " RENAME TO " + table + "_legacy;");
+                }
+                statement.executeUpdate("ALTER TABLE " + table + "_new RENAME TO " + table + ";");
+            }
+            statement.executeUpdate("DROP TABLE IF EXISTS currency_bank_legacy;");
+            statement.executeUpdate("DROP TABLE IF EXISTS currency_bank_history_legacy;");
+        }
+    }
+
+    /**
+     * Copies {@code currency_bank} rows into the compact table.
+     *
+     * @param conn   The SQL connection.
+     * @param reject Insert into the rejected-rows table.
+     * @return The number of rows rejected.
+     * @throws SQLException If reading or writing fails.
+     */
+    private int copyBalances(Connection conn, PreparedStatement reject) throws SQLException {
+        try (Statement select = conn.createStatement();
+             ResultSet rs = select.executeQuery(
+                     "SELECT bank_id, uuid, coin_type, balance, interest_rate, last_interest_time FROM currency_bank;");
+             PreparedStatement insert = conn.prepareStatement(
+                     "INSERT INTO currency_bank_new (bank_id, uuid, coin_type, balance, interest_rate, last_interest_time) " +
+                             "VALUES (?, ?, ?, ?, ?, ?);")) {
+            int pending = 0;
+            int rejected = 0;
+            while (rs.next()) {
+                String uuidText = rs.getString("uuid");
+                String coinText = rs.getString("coin_type");
+                byte[] uuid = parseUuid(uuidText);
+                int coin = legacyCoinCode(coinText);
+                if (uuid == null || coin < 0) {
+                    reject.setString(1, "currency_bank");
+                    reject.setLong(2, rs.getLong("bank_id"));
+                    reject.setString(3, uuid == null ? "malformed uuid" : "unknown coin type");
+                    reject.setString(4, uuidText);
+                    reject.setString(5, coinText);
+                    reject.setString(6, null);
+                    reject.setObject(7, rs.getObject("balance"));
+                    reject.setString(8, null);
+                    reject.setObject(9, rs.getObject("last_interest_time"));
+                    reject.executeUpdate();
+                    rejected++;
+                    continue;
+                }
+
+                insert.setLong(1, rs.getLong("bank_id"));
+                insert.setBytes(2, uuid);
+                insert.setInt(3, coin);
+                insert.setDouble(4, rs.getDouble("balance"));
+                insert.setDouble(5, rs.getDouble("interest_rate"));
+                insert.setObject(6, rs.getObject("last_interest_time"));
+                insert.addBatch();
+
+                if (++pending == BATCH_SIZE) {
+                    insert.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) insert.executeBatch();
+            return rejected;
+        }
+    }
+
+    /**
+     * Copies {@code currency_bank_history} rows into the compact table, preserving ids.
+     * History rows without a UUID are copied as such.
+     *
+     * @param conn   The SQL connection.
+     * @param reject Insert into the rejected-rows table.
+     * @return The number of rows rejected.
+     * @throws SQLException If reading or writing fails.
+     */
+    private int copyHistory(Connection conn, PreparedStatement reject) throws SQLException {
+        try (Statement select = conn.createStatement();
+             ResultSet rs = select.executeQuery(
+                     "SELECT history_id, uuid, change_amount, change_type, coin_type, note, created_time " +
+                             "FROM currency_bank_history;");
+             PreparedStatement insert = conn.prepareStatement(
+                     "INSERT INTO currency_bank_history_new " +
+                             "(history_id, uuid, change_amount, change_type, coin_type, note, created_time) " +
+                             "VALUES (?, ?, ?, ?, ?, ?, ?);")) {
+            int pending = 0;
+            int rejected = 0;
+            while (rs.next()) {
+                String uuidText = rs.getString("uuid");
+                String changeText = rs.getString("change_type");
+                String coinText = rs.getString("coin_type");
+                byte[] uuid = parseUuid(uuidText);
+                int change = BankSchema.changeCode(changeText);
+                int coin = legacyCoinCode(coinText);
+
+                String reason = uuidText != null && uuid == null ? "malformed uuid"
+                        : change < 0 ? "unknown change type"
+                        : coin < 0 ? "unknown coin type"
+                        : null;
+                if (reason != null) {
+                    reject.setString(1, "currency_bank_history");
+                    reject.setLong(2, rs.getLong("history_id"));
+                    reject.setString(3, reason);
+                    reject.setString(4, uuidText);
+                    reject.setString(5, coinText);
+                    reject.setString(6, changeText);
+                    reject.setObject(7, rs.getObject("change_amount"));
+                    reject.setString(8, rs.getString("note"));
+                    reject.setObject(9, rs.getObject("created_time"));
+                    reject.executeUpdate();
+                    rejected++;
+                    continue;
+                }
+
+                insert.setLong(1, rs.getLong("history_id"));
+                insert.setBytes(2, uuid);
+                insert.setDouble(3, rs.getDouble("change_amount"));
+                insert.setInt(4, change);
+                insert.setInt(5, coin);
+                insert.setString(6, rs.getString("note"));
+                insert.setObject(7, rs.getObject("created_time"));
+                insert.addBatch();
+
+                if (++pending == BATCH_SIZE) {
+                    insert.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) insert.executeBatch();
+            return rejected;
+        }
+    }
+
+    /**
+     * Resolves the code of a legacy coin type.
+     *
+     * @param coinType The legacy coin name.
+     * @return The code, or -1 if the coin type is unknown.
+     */
+    private int legacyCoinCode(String coinType) {
+        for (int i = 0; i < LEGACY_COIN_TYPES.length; i++) {
+            if (LEGACY_COIN_TYPES[i].equals(coinType)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a legacy text UUID into its binary form.
+     *
+     * @param text The UUID string.
+     * @return 16 bytes, or {@code null} if the value is missing or malformed.
+     */
+    private byte[] parseUuid(String text) {
+        if (text == null) return null;
+        try {
+            return BankSchema.toBytes(UUID.fromString(text));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.mcengine.extension.addon.currency.bank.database.migration;
+
+import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
+import io.github.mcengine.extension.addon.currency.bank.database.BankDialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Clusters {@code currency_bank} on its natural key {@code (uuid, coin_type)}.
+ * <p>
+ * Balance reads ({@code WHERE uuid = ? AND coin_type = ?}) and updates are then served by the
+ * primary key alone, with no separate unique index to maintain on every write. The surrogate
+ * {@code bank_id} is dropped. History needs no extra index: every history read goes through
+ * {@code history_id}.
+ * <p>
+ * The table is rebuilt under a new name and swapped in with two renames. If a previous attempt
+ * stopped part-way (MySQL commits each DDL statement), the step resumes from where it stopped.
+ */
+class V3ClusteredBalanceKey implements BankMigration {
+
+    @Override
+    public int version() {
+        return 3;
+    }
+
+    @Override
+    public String description() {
+        return "clustered balance key";
+    }
+
+    @Override
+    public void apply(Connection conn, BankDialect dialect, MCEngineAddOnLogger logger) throws SQLException {
+        try (Statement statement = conn.createStatement()) {
+            if (!MigrationSupport.tableExists(conn, "currency_bank")
+                    && MigrationSupport.tableExists(conn, "currency_bank_clustered")) {
+                // Stopped between the two renames; the rebuilt table is complete.
+                statement.executeUpdate("ALTER TABLE currency_bank_clustered RENAME TO currency_bank;");
+            } else if (MigrationSupport.columnExists(conn, "currency_bank", "bank_id")) {
+                statement.executeUpdate("DROP TABLE IF EXISTS currency_bank_clustered;");
+                statement.executeUpdate("CREATE TABLE currency_bank_clustered (" +
+                        "uuid " + dialect.uuidType() + " NOT NULL, " +
+                        "coin_type SMALLINT NOT NULL, " +
+                        "balance DOUBLE DEFAULT 0.0, " +
+                        "interest_rate DOUBLE DEFAULT 0.0, " +
+                        "last_interest_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                        "PRIMARY KEY (uuid, coin_type)" +
+                        ")" + dialect.clusteredOptions() + ";");
+                statement.executeUpdate("INSERT INTO currency_bank_clustered " +
+                        "(uuid, coin_type, balance, interest_rate, last_interest_time) " +
+                        "SELECT uuid, coin_type, balance, interest_rate, last_interest_time FROM currency_bank;");
+                statement.executeUpdate("ALTER TABLE currency_bank RENAME TO currency_bank_unclustered;");
+                statement.executeUpdate("ALTER TABLE currency_bank_clustered RENAME TO currency_bank;");
+            }
+            statement.executeUpdate("DROP TABLE IF EXISTS currency_bank_unclustered;");
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.mcengine.extension.addon.currency.bank.database.migration;
+
+import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
+import io.github.mcengine.extension.addon.currency.bank.database.BankDialect;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Adds daily activity rollups and the history watermark used to maintain them.
+ * <p>
+ * {@code currency_bank_daily_rollup} holds one row per day, coin type and change type.
+ * {@code currency_bank_rollup_state} holds the last history id folded into the rollups;
+ * it starts at 0 so existing history is caught up by the first rollup run. Tables and the state
+ * row are only created if missing, so the step can be re-run.
+ */
+class V4DailyRollups implements BankMigration {
+
+    @Override
+    public int version() {
+        return 4;
+    }
+
+    @Override
+    public String description() {
+        return "daily activity rollups";
+    }
+
+    @Override
+    public void apply(Connection conn, BankDialect dialect, MCEngineAddOnLogger logger) throws SQLException {
+        try (Statement statement = conn.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS currency_bank_daily_rollup (" +
+                    "day DATE NOT NULL, " +
+                    "coin_type SMALLINT NOT NULL, " +
+                    "change_type SMALLINT NOT NULL, " +
+                    "total DOUBLE NOT NULL DEFAULT 0.0, " +
+                    "entries BIGINT NOT NULL DEFAULT 0, " +
+                    "PRIMARY KEY (day, coin_type, change_type)" +
+                    ");");
+
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS currency_bank_rollup_state (" +
+                    "id INTEGER PRIMARY KEY, " +
+                    "last_history_id BIGINT NOT NULL" +
+                    ");");
+
+            try (ResultSet rs = statement.executeQuery("SELECT 1 FROM currency_bank_rollup_state WHERE id = 1;")) {
+                if (rs.next()) return;
+            }
+            statement.executeUpdate("INSERT INTO currency_bank_rollup_state (id, last_history_id) VALUES (1, 0);");
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.mcengine.extension.addon.currency.bank.database.migration;
+
+import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
+import io.github.mcengine.extension.addon.currency.bank.database.BankDialect;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Persists the coin type ordinals used by the {@code coin_type} columns.
+ * <p>
+ * Seeds the codes assigned by {@link V2CompactKeys} so existing rows keep their meaning;
+ * further coin types are registered at runtime from the config. The table and seed rows are only
+ * created if missing, so the step can be re-run.
+ */
+class V5CoinTypeRegistry implements BankMigration {
+
+    @Override
+    public int version() {
+        return 5;
+    }
+
+    @Override
+    public String description() {
+        return "coin type registry";
+    }
+
+    @Override
+    public void apply(Connection conn, BankDialect dialect, MCEngineAddOnLogger logger) throws SQLException {
+        try (Statement statement = conn.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS currency_bank_coin_type (" +
+                    "code SMALLINT PRIMARY KEY, " +
+                    "name VARCHAR(32) NOT NULL UNIQUE" +
+                    ");");
+        }
+
+        try (PreparedStatement select = conn.prepareStatement(
+                "SELECT 1 FROM currency_bank_coin_type WHERE code = ?;");
+             PreparedStatement insert = conn.prepareStatement(
+                     "INSERT INTO currency_bank_coin_type (code, name) VALUES (?, ?);")) {
+            for (int code = 0; code < V2CompactKeys.LEGACY_COIN_TYPES.length; code++) {
+                select.setInt(1, code);
+                try (ResultSet rs = select.executeQuery()) {
+                    if (rs.next()) continue;
+                }
+
+                insert.setInt(1, code);
+                insert.setString(2, V2CompactKeys.LEGACY_COIN_TYPES[code]);
+                insert.executeUpdate();
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package io.github.mcengine.extension.addon.currency.bank.interest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An interest configuration file compiled into one {@link InterestTable} per coin type.
+ * <p>
+ * Recognised keys:
+ * <ul>
+ *     <li><b>interest</b> — brackets of {@code amount} (lower bound), {@code coin_type} and {@code interest_rate} (percent)</li>
+ *     <li><b>progressive</b> — apply brackets marginally instead of to the whole balance (default {@code false})</li>
+ *     <li><b>cap</b> — map of coin type to maximum interest per account per run</li>
+ *     <li><b>set_based</b> — run the payout as set-based SQL updates over key ranges instead of in chunks (default {@code false})</li>
+ * </ul>
+ * The scheduler also reads {@code enabled} and {@code schedule}; a file with {@code enabled: false} is never run.
+ */
+public final class InterestPlan {
+
+    /** Compiled tables keyed by coin type. */
+    private final Map<String, InterestTable> tables;
+
+    /** Whether payouts should run as set-based SQL. */
+    private final boolean setBased;
+
+    private InterestPlan(Map<String, InterestTable> tables, boolean setBased) {
+        this.tables = tables;
+        this.setBased = setBased;
+    }
+
+    /**
+     * @return Compiled tables keyed by coin type, in configuration order.
+     */
+    public Map<String, InterestTable> tables() {
+        return tables;
+    }
+
+    /**
+     * @return {@code true} if payouts should run as set-based SQL.
+     */
+    public boolean setBased() {
+        return setBased;
+    }
+
+    /**
+     * Compiles a loaded YAML document.
+     * Brackets sharing the same coin type and amount are collapsed, the last one winning.
+     * Coin types are matched case-insensitively, in brackets and caps alike.
+     *
+     * @param root The YAML root map.
+     * @return The compiled plan.
+     * @throws IllegalArgumentException If the {@code interest} section is missing, or a bracket or cap
+     *                                  is malformed; the message names the offending entry.
+     */
+    public static InterestPlan compile(Map<String, Object> root) {
+        Object section = root.get("interest");
+        if (!(section instanceof Map<?, ?> entries)) {
+            throw new IllegalArgumentException("Missing 'interest' section");
+        }
+
+        Map<String, Map<Double, Double>> brackets = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> bracket : entries.entrySet()) {
+            String name = "interest." + bracket.getKey();
+            if (!(bracket.getValue() instanceof Map<?, ?> entry)) {
+                throw new IllegalArgumentException("Bracket '" + name + "' must be a section");
+            }
+
+            String coinType = coinType(entry.get("coin_type"), name + ".coin_type");
+            double amount = number(entry.get("amount"), name + ".amount");
+            double rate = number(entry.get("interest_rate"), name + ".interest_rate");
+            brackets.computeIfAbsent(coinType, k -> new LinkedHashMap<>()).put(amount, rate);
+        }
+
+        boolean progressive = Boolean.TRUE.equals(root.get("progressive"));
+        boolean setBased = Boolean.TRUE.equals(root.get("set_based"));
+
+        Map<String, Double> caps = new LinkedHashMap<>();
+        Object capSection = root.get("cap");
+        if (capSection instanceof Map<?, ?> capEntries) {
+            for (Map.Entry<?, ?> cap : capEntries.entrySet()) {
+                String name = "cap." + cap.getKey();
+                caps.put(coinType(cap.getKey(), name), number(cap.getValue(), name));
+            }
+        } else if (capSection != null) {
+            throw new IllegalArgumentException("'cap' must map coin types to amounts");
+        }
+
+        Map<String, InterestTable> tables = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<Double, Double>> entry : brackets.entrySet()) {
+            Map<Double, Double> byAmount = entry.getValue();
+            double[] thresholds = new double[byAmount.size()];
+            double[] percents = new double[byAmount.size()];
+            int i = 0;
+            for (Map.Entry<Double, Double> bracket : byAmount.entrySet()) {
+                thresholds[i] = bracket.getKey();
+                percents[i++] = bracket.getValue();
+            }
+
+            double cap = caps.getOrDefault(entry.getKey(), 0.0);
+            tables.put(entry.getKey(), new InterestTable(thresholds, percents, progressive, cap));
+        }
+
+        return new InterestPlan(tables, setBased);
+    }
+
+    /**
+     * Normalises a coin type key.
+     *
+     * @param value The configured value.
+     * @param name  The config path, used in the error message.
+     * @return The trimmed, lower-case coin type.
+     * @throws IllegalArgumentException If the value is missing or blank.
+     */
+    private static String coinType(Object value, String name) {
+        String coinType = value == null ? "" : value.toString().trim().toLowerCase();
+        if (coinType.isEmpty()) {
+            throw new IllegalArgumentException("'" + name + "' is missing");
+        }
+        return coinType;
+    }
+
+    /**
+     * Reads a numeric setting.
+     *
+     * @param value The configured value.
+     * @param name  The config path, used in the error message.
+     * @return The value as a double.
+     * @throws IllegalArgumentException If the value is missing or not a number.
+     */
+    private static double number(Object value, String name) {
+        if (!(value instanceof Number number)) {
+            throw new IllegalArgumentException("'" + name + "' must be a number");
+        }
+        return number.doubleValue();
+    }
+}
@@ -0,0 +1,144 @@
+package io.github.mcengine.extension.addon.currency.bank.interest;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Compiled tiered-interest brackets for a single coin type.
+ * <p>
+ * Brackets are kept as sorted primitive arrays so an account's bracket is found with a
+ * binary search over {@link #thresholds}. In flat mode the whole balance earns the rate of
+ * its bracket; in progressive mode each slice of the balance earns the rate of the bracket
+ * it falls in. An optional cap limits the interest paid to one account per run.
+ */
+public final class InterestTable {
+
+    /** Bracket lower bounds (inclusive), ascending. */
+    private final double[] thresholds;
+
+    /** Per-bracket rates as fractions (2% is stored as 0.02). */
+    private final double[] rates;
+
+    /** Interest accumulated below each threshold; only used in progressive mode. */
+    private final double[] accumulated;
+
+    /** Whether brackets are applied marginally. */
+    private final boolean progressive;
+
+    /** Maximum interest per account per run, or {@code 0} for no cap. */
+    private final double cap;
+
+    /**
+     * Compiles a table from bracket definitions.
+     *
+     * @param thresholds  Bracket lower bounds; need not be sorted but must be unique.
+     * @param percents    Rates in percent, parallel to {@code thresholds}.
+     * @param progressive {@code true} for marginal brackets, {@code false} for flat brackets.
+     * @param cap         Maximum interest per account per run, or {@code 0} for no cap.
+     */
+    public InterestTable(double[] thresholds, double[] percents, boolean progressive, double cap) {
+        int n = thresholds.length;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(thresholds[a], thresholds[b]));
+
+        this.thresholds = new double[n];
+        this.rates = new double[n];
+        for (int i = 0; i < n; i++) {
+            this.thresholds[i] = thresholds[order[i]];
+            this.rates[i] = percents[order[i]] / 100.0;
+        }
+
+        this.accumulated = new double[n];
+        for (int i = 1; i < n; i++) {
+            accumulated[i] = accumulated[i - 1] + (this.thresholds[i] - this.thresholds[i - 1]) * rates[i - 1];
+        }
+
+        this.progressive = progressive;
+        this.cap = cap;
+    }
+
+    /**
+     * @return The lowest balance that earns interest, or {@link Double#MAX_VALUE} if the table is empty.
+     */
+    public double minimumBalance() {
+        return thresholds.length == 0 ? Double.MAX_VALUE : thresholds[0];
+    }
+
+    /**
+     * Computes the interest for a single balance.
+     *
+     * @param balance The account balance.
+     * @return The interest to pay, never negative.
+     */
+    public double interestFor(double balance) {
+        int i = bracketOf(balance);
+        if (i < 0) return 0.0;
+
+        double interest = progressive
+                ? accumulated[i] + (balance - thresholds[i]) * rates[i]
+                : balance * rates[i];
+
+        if (cap > 0 && interest > cap) interest = cap;
+        return Math.max(interest, 0.0);
+    }
+
+    /**
+     * Computes interest for a chunk of balances.
+     *
+     * @param balances The account balances.
+     * @param count    The number of leading entries of {@code balances} to process.
+     * @param out      Receives the interest for each balance; must hold at least {@code count} entries.
+     */
+    public void interestFor(double[] balances, int count, double[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = interestFor(balances[i]);
+        }
+    }
+
+    /**
+     * Expresses this table as a SQL {@code CASE} expression over a balance column,
+     * for set-based updates.
+     *
+     * @param column The balance column name.
+     * @return A SQL expression yielding the interest for each row.
+     */
+    public String toSqlCase(String column) {
+        if (thresholds.length == 0) return "0";
+
+        StringBuilder sql = new StringBuilder("CASE");
+        for (int i = thresholds.length - 1; i >= 0; i--) {
+            sql.append(" WHEN ").append(column).append(" >= ").append(literal(thresholds[i])).append(" THEN ");
+            if (progressive) {
+                sql.append(literal(accumulated[i])).append(" + (").append(column).append(" - ")
+                        .append(literal(thresholds[i])).append(") * ").append(literal(rates[i]));
+            } else {
+                sql.append(column).append(" * ").append(literal(rates[i]));
+            }
+        }
+        sql.append(" ELSE 0 END");
+
+        if (cap <= 0) return sql.toString();
+
+        String expr = "(" + sql + ")";
+        return "CASE WHEN " + expr + " > " + literal(cap) + " THEN " + literal(cap) + " ELSE " + expr + " END";
+    }
+
+    /**
+     * Finds the bracket a balance falls into.
+     *
+     * @param balance The account balance.
+     * @return The bracket index, or -1 if the balance is below every bracket.
+     */
+    private int bracketOf(double balance) {
+        int i = Arrays.binarySearch(thresholds, balance);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    /**
+     * Formats a number as a plain SQL literal (no exponent notation).
+     */
+    private static String literal(double value) {
+        return BigDecimal.valueOf(value).toPlainString();
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.mcengine.extension.addon.currency.bank.registry;
+
+import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Central registry of the coin types the bank accepts.
+ * <p>
+ * Coin names come from {@code bank.coin-types} in the plugin config. Each name is mapped to a
+ * dense ordinal that is persisted in {@code currency_bank_coin_type}; the ordinal is the value
+ * stored in the {@code coin_type} columns. New names get the next free ordinal, and ordinals are
+ * never reused, so reordering or removing names in the config never remaps stored balances.
+ * Names removed from the config stay resolvable for reports but are no longer accepted.
+ * <p>
+ * Deposits and withdrawals move coins through the currency wallet, which only stores
+ * {@link #WALLET_COIN_TYPES}. Configured names outside that set are rejected at load time, since
+ * the wallet could not be debited or credited for them.
+ */
+public final class BankCoinRegistry {
+
+    /** Coin types stored by the currency wallet. */
+    public static final List<String> WALLET_COIN_TYPES = List.of("coin", "copper", "silver", "gold");
+
+    /** Coin types used when the config does not list any supported ones. */
+    public static final List<String> DEFAULT_COIN_TYPES = WALLET_COIN_TYPES;
+
+    /**
+     * Immutable lookup state, swapped atomically on reload.
+     *
+     * @param names       Names of every known ordinal, including disabled ones; {@code null} for unassigned ordinals.
+     * @param enabled     Whether each ordinal is enabled in the current config.
+     * @param completions Prefix table over enabled coin names.
+     * @param display     Enabled coin names joined for messages, e.g. "coin, copper, silver, gold".
+     */
+    private record State(String[] names, boolean[] enabled, PrefixTable completions, String display) {
+    }
+
+    /** The current lookup state; defaults to the legacy coin set until {@link #load} runs. */
+    private static volatile State state = new State(
+            DEFAULT_COIN_TYPES.toArray(String[]::new),
+            new boolean[]{true, true, true, true},
+            new PrefixTable(DEFAULT_COIN_TYPES),
+            String.join(", ", DEFAULT_COIN_TYPES));
+
+    private BankCoinRegistry() {
+    }
+
+    /**
+     * Loads the persisted ordinals, assigns ordinals to new config names, and rebuilds the lookup tables.
+     *
+     * @param conn      The writer connection.
+     * @param coinTypes Coin names from the config; names outside {@link #WALLET_COIN_TYPES} are skipped,
+     *                  and {@link #DEFAULT_COIN_TYPES} is used if none remain.
+     * @param logger    The logger used to report skipped and newly registered coin types.
+     * @throws SQLException If the coin type table cannot be read or written.
+     */
+    public static synchronized void load(Connection conn, List<String> coinTypes, MCEngineAddOnLogger logger) throws SQLException {
+        List<String> configured = new ArrayList<>();
+        for (String name : coinTypes) {
+            String normalized = name.trim().toLowerCase();
+            if (normalized.isEmpty() || configured.contains(normalized)) continue;
+
+            if (!WALLET_COIN_TYPES.contains(normalized)) {
+                logger.warning("Ignoring bank coin type '" + name + "': the currency wallet does not support it.");
+                continue;
+            }
+            configured.add(normalized);
+        }
+        if (configured.isEmpty()) configured.addAll(DEFAULT_COIN_TYPES);
+
+        List<String> known = new ArrayList<>();
+        try (Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT code, name FROM currency_bank_coin_type ORDER BY code;")) {
+            while (rs.next()) {
+                int code = rs.getInt(1);
+                while (known.size() <= code) known.add(null);
+                known.set(code, rs.getString(2));
+            }
+        }
+
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO currency_bank_coin_type (code, name) VALUES (?, ?);")) {
+            for (String name : configured) {
+                if (known.contains(name)) continue;
+
+                insert.setInt(1, known.size());
+                insert.setString(2, name);
+                insert.executeUpdate();
+                known.add(name);
+                logger.info("Registered bank coin type '" + name + "' as " + (known.size() - 1) + ".");
+            }
+        }
+
+        boolean[] flags = new boolean[known.size()];
+        for (int i = 0; i < flags.length; i++) {
+            flags[i] = configured.contains(known.get(i));
+        }
+
+        state = new State(known.toArray(String[]::new), flags, new PrefixTable(configured), String.join(", ", configured));
+    }
+
+    /**
+     * Resolves the ordinal of an enabled coin type, ignoring case. Does not allocate.
+     *
+     * @param coinType The coin name as typed.
+     * @return The ordinal, or -1 if the coin type is unknown or disabled.
+     */
+    public static int code(String coinType) {
+        State current = state;
+        for (int i = 0; i < current.names.length; i++) {
+            if (current.enabled[i] && current.names[i].equalsIgnoreCase(coinType)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Resolves the canonical name of an ordinal, including disabled coin types.
+     *
+     * @param code The ordinal.
+     * @return The coin name, or {@code null} if the ordinal is unassigned.
+     */
+    public static String name(int code) {
+        String[] current = state.names;
+        return code >= 0 && code < current.length ? current[code] : null;
+    }
+
+    /**
+     * Returns the enabled coin names starting with the given prefix. Does not allocate.
+     *
+     * @param prefix The typed prefix, any case.
+     * @return A shared unmodifiable list of matches.
+     */
+    public static List<String> complete(String prefix) {
+        return state.completions.complete(prefix);
+    }
+
+    /**
+     * @return The enabled coin names joined for display in messages.
+     */
+    public static String display() {
+        return state.display;
+    }
+}
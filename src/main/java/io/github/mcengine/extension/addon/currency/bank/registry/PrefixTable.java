@@ -0,0 +1,77 @@
+package io.github.mcengine.extension.addon.currency.bank.registry;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable, case-insensitive prefix lookup over a fixed set of lowercase words.
+ * <p>
+ * Words are sorted so all words sharing a prefix form one contiguous range, and the
+ * result list for every possible range is built up front. Lookups and matches therefore
+ * allocate nothing, which keeps per-keystroke tab completion garbage-free.
+ */
+public final class PrefixTable {
+
+    /** Words in ascending order. */
+    private final String[] sorted;
+
+    /** {@code ranges[start][length]} is the unmodifiable list of {@code sorted[start, start + length)}. */
+    private final List<String>[][] ranges;
+
+    /**
+     * Builds a table over the given words.
+     *
+     * @param words Lowercase words; duplicates are ignored.
+     */
+    @SuppressWarnings("unchecked")
+    public PrefixTable(List<String> words) {
+        this.sorted = words.stream().distinct().sorted().toArray(String[]::new);
+        this.ranges = new List[sorted.length + 1][];
+        for (int start = 0; start <= sorted.length; start++) {
+            ranges[start] = new List[sorted.length - start + 1];
+            for (int length = 0; length <= sorted.length - start; length++) {
+                ranges[start][length] = List.of(Arrays.copyOfRange(sorted, start, start + length));
+            }
+        }
+    }
+
+    /**
+     * Returns every word starting with the given prefix, ignoring case.
+     *
+     * @param prefix The typed prefix.
+     * @return A shared unmodifiable list of matches, in ascending order.
+     */
+    public List<String> complete(String prefix) {
+        int start = 0;
+        while (start < sorted.length && !startsWithIgnoreCase(sorted[start], prefix)) start++;
+
+        int end = start;
+        while (end < sorted.length && startsWithIgnoreCase(sorted[end], prefix)) end++;
+
+        return ranges[start][end - start];
+    }
+
+    /**
+     * Finds the word equal to the given text, ignoring case.
+     *
+     * @param text The typed text.
+     * @return The matching lowercase word, or {@code null} if none matches.
+     */
+    public String match(String text) {
+        for (String word : sorted) {
+            if (word.equalsIgnoreCase(text)) return word;
+        }
+        return null;
+    }
+
+    /**
+     * @return All words in ascending order.
+     */
+    public List<String> all() {
+        return ranges[0][sorted.length];
+    }
+
+    private static boolean startsWithIgnoreCase(String word, String prefix) {
+        return word.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+}
@@ -5,10 +5,12 @@ import com.cronutils.model.definition.CronDefinitionBuilder;
 import com.cronutils.model.time.ExecutionTime;
 import com.cronutils.parser.CronParser;
 import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
-import io.github.mcengine.common.currency.MCEngineCurrencyCommon;
-import io.github.mcengine.extension.addon.currency.bank.database.BankDB;
+import io.github.mcengine.extension.addon.currency.bank.database.BankConnectionManager;
+import io.github.mcengine.extension.addon.currency.bank.database.BankInterestDB;
+import io.github.mcengine.extension.addon.currency.bank.interest.InterestPlan;
+import io.github.mcengine.extension.addon.currency.bank.interest.InterestTable;
+import io.github.mcengine.extension.addon.currency.bank.registry.BankCoinRegistry;
 import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.plugin.Plugin;
 import org.yaml.snakeyaml.Yaml;
 
@@ -40,6 +42,11 @@ public class BankInterestScheduler {
      */
     private static final Yaml yaml = new Yaml();
 
+    /**
+     * Number of accounts processed per transaction during chunked payouts.
+     */
+    private static final int CHUNK_SIZE = 500;
+
     /**
      * Constructs the scheduler for interest payouts.
      *
@@ -91,6 +98,7 @@ public class BankInterestScheduler {
 
     /**
      * Schedules a repeating interest task based on cron for a single config file.
+     * Files with {@code enabled: false} are skipped.
      *
      * @param file the YAML configuration file
      */
@@ -98,6 +106,11 @@ public class BankInterestScheduler {
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             try (FileInputStream fis = new FileInputStream(file)) {
                 Map<String, Object> root = yaml.load(fis);
+                if (Boolean.FALSE.equals(root.get("enabled"))) {
+                    logger.info("Interest file " + file.getName() + " is disabled (enabled: false); not scheduled.");
+                    return;
+                }
+
                 String cronExpr = (String) root.get("schedule");
 
                 if (cronExpr == null || cronExpr.trim().isEmpty()) {
@@ -108,6 +121,10 @@ public class BankInterestScheduler {
                 long delay = getInitialDelayMillis(cronExpr);
                 long period = getFixedPeriodMillis(cronExpr);
 
+                if (root.get("cap") == null) {
+                    logger.warning("Interest file " + file.getName() + " has no 'cap' section; interest per account is unlimited.");
+                }
+
                 Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> runInterestTask(logger, file), delay / 50L, period / 50L);
                 logger.info("Scheduled interest for " + file.getName());
 
@@ -119,37 +136,34 @@ public class BankInterestScheduler {
     }
 
     /**
-     * Executes a scheduled interest payout by reading the config and applying changes.
+     * Executes a scheduled interest payout by compiling the config into tiered tables
+     * and applying them to every stored account.
      *
      * @param file the YAML config file
      */
     private void runInterestTask(MCEngineAddOnLogger logger, File file) {
         try (FileInputStream fis = new FileInputStream(file)) {
             Map<String, Object> config = yaml.load(fis);
-            Map<String, Map<String, Object>> interestMap = (Map<String, Map<String, Object>>) config.get("interest");
-
-            Map<String, Map<String, Object>> filtered = new LinkedHashMap<>();
-            for (Map.Entry<String, Map<String, Object>> entry : interestMap.entrySet()) {
-                String key = entry.getValue().get("coin_type") + "-" + entry.getValue().get("amount");
-                filtered.put(key, entry.getValue());
-            }
-
-            try (Connection conn = MCEngineCurrencyCommon.getApi().getDBConnection()) {
-                for (OfflinePlayer player : Bukkit.getOfflinePlayers()) {
-                    for (Map<String, Object> values : filtered.values()) {
-                        String coinType = (String) values.get("coin_type");
-                        double base = ((Number) values.get("amount")).doubleValue();
-                        double rate = ((Number) values.get("interest_rate")).doubleValue();
-
-                        double interest = base * (rate / 100.0);
-                        BankDB.deposit(conn, player, coinType, interest);
-                        logger.info("Applied " + interest + " " + coinType + " interest to " + player.getName());
-                    }
+            InterestPlan plan = InterestPlan.compile(config);
+
+            // The writer is owned by the connection manager and must stay open.
+            Connection conn = BankConnectionManager.writer();
+            for (Map.Entry<String, InterestTable> entry : plan.tables().entrySet()) {
+                String coinType = entry.getKey();
+                int coin = BankCoinRegistry.code(coinType);
+                if (coin < 0) {
+                    logger.warning("Unknown coin type '" + coinType + "' in interest file: " + file.getName());
+                    continue;
                 }
+
+                int credited = plan.setBased()
+                        ? BankInterestDB.applySetBased(conn, coin, entry.getValue())
+                        : BankInterestDB.applyChunked(conn, coin, entry.getValue(), CHUNK_SIZE);
+                logger.info("Applied " + coinType + " interest to " + credited + " accounts from " + file.getName());
             }
 
         } catch (Exception e) {
-            logger.warning("Failed to run interest task for: " + file.getName());
+            logger.warning("Failed to run interest task for: " + file.getName() + " - " + e.getMessage());
             e.printStackTrace();
         }
     }
@@ -0,0 +1,44 @@
+package io.github.mcengine.extension.addon.currency.bank.scheduler;
+
+import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
+import io.github.mcengine.extension.addon.currency.bank.database.BankConnectionManager;
+import io.github.mcengine.extension.addon.currency.bank.database.BankRollupDB;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Periodically folds new bank history rows into the daily rollups used by {@code /bank admin report}.
+ */
+public class BankRollupScheduler {
+
+    /**
+     * Maximum number of history ids folded per transaction.
+     */
+    private static final long BATCH_SIZE = 50_000L;
+
+    /**
+     * Starts the asynchronous catch-up job.
+     * The interval is read from {@code bank.rollup.interval-minutes} (default 5).
+     *
+     * @param plugin the plugin instance
+     * @param logger the logger instance
+     */
+    public BankRollupScheduler(Plugin plugin, MCEngineAddOnLogger logger) {
+        long minutes = Math.max(1L, plugin.getConfig().getLong("bank.rollup.interval-minutes", 5L));
+        long period = minutes * 60L * 20L;
+
+        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> runCatchUp(logger), 20L, period);
+    }
+
+    /**
+     * Folds pending history rows into the rollups.
+     */
+    private void runCatchUp(MCEngineAddOnLogger logger) {
+        try {
+            BankRollupDB.catchUp(BankConnectionManager.writer(), BATCH_SIZE);
+        } catch (Exception e) {
+            logger.warning("Failed to update bank rollups: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.mcengine.extension.addon.currency.bank.scheduler;
+
+import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
+import io.github.mcengine.extension.addon.currency.bank.database.BankConnectionManager;
+import io.github.mcengine.extension.addon.currency.bank.snapshot.BalanceSnapshotStore;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+
+/**
+ * Periodically rewrites the memory-mapped balance snapshot used for warm restarts.
+ */
+public class BankSnapshotScheduler {
+
+    /**
+     * Starts the asynchronous snapshot job.
+     * The interval is read from {@code bank.snapshot.interval-minutes} (default 10).
+     *
+     * @param plugin the plugin instance
+     * @param logger the logger instance
+     */
+    public BankSnapshotScheduler(Plugin plugin, MCEngineAddOnLogger logger) {
+        long minutes = Math.max(1L, plugin.getConfig().getLong("bank.snapshot.interval-minutes", 10L));
+        long period = minutes * 60L * 20L;
+        File dir = BalanceSnapshotStore.directoryFor(plugin);
+
+        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> runSnapshot(logger, dir), period, period);
+    }
+
+    /**
+     * Writes a fresh snapshot from a read connection to the primary, so it includes every committed write.
+     */
+    private void runSnapshot(MCEngineAddOnLogger logger, File dir) {
+        try (BankConnectionManager.Lease lease = BankConnectionManager.readPrimary()) {
+            BalanceSnapshotStore.write(lease.connection(), dir, logger);
+        } catch (Exception e) {
+            logger.warning("Failed to write balance snapshot: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package io.github.mcengine.extension.addon.currency.bank.snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * A read-only, memory-mapped snapshot of every {@code currency_bank} balance.
+ * <p>
+ * File layout (big-endian):
+ * <pre>
+ * header (40 bytes): magic "MCBK" | version | record size | record count
+ *                    | history high-water mark | created millis | CRC32 of records
+ * record (28 bytes): uuid msb | uuid lsb | coin ordinal | balance
+ * </pre>
+ * Records are sorted by unsigned UUID halves, then coin ordinal, so lookups binary-search
+ * the mapped file directly without loading it into the heap. The high-water mark is the
+ * largest {@code history_id} covered by the snapshot.
+ */
+public final class BalanceSnapshot {
+
+    /** File magic, "MCBK". */
+    private static final int MAGIC = 0x4D43424B;
+
+    /** Current file format version. */
+    private static final int VERSION = 1;
+
+    /** Header size in bytes. */
+    private static final int HEADER_SIZE = 40;
+
+    /** Record size in bytes. */
+    private static final int RECORD_SIZE = 28;
+
+    /** The mapped file. */
+    private final MappedByteBuffer buffer;
+
+    /** Number of records. */
+    private final int count;
+
+    /** Largest history id reflected in the records. */
+    private final long highWater;
+
+    private BalanceSnapshot(MappedByteBuffer buffer, int count, long highWater) {
+        this.buffer = buffer;
+        this.count = count;
+        this.highWater = highWater;
+    }
+
+    /**
+     * Maps a snapshot file and validates its header and checksum.
+     *
+     * @param file The snapshot file.
+     * @return The mapped snapshot.
+     * @throws IOException If the file is missing, truncated, of another version, or fails its checksum.
+     */
+    public static BalanceSnapshot open(File file) throws IOException {
+        MappedByteBuffer buffer;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            if (channel.size() < HEADER_SIZE) throw new IOException("snapshot truncated");
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != RECORD_SIZE) {
+            throw new IOException("unsupported snapshot format");
+        }
+
+        int count = buffer.getInt(12);
+        if (count < 0 || buffer.capacity() != HEADER_SIZE + (long) count * RECORD_SIZE) {
+            throw new IOException("snapshot size does not match record count");
+        }
+
+        if (checksum(buffer, count) != buffer.getLong(32)) {
+            throw new IOException("snapshot checksum mismatch");
+        }
+
+        return new BalanceSnapshot(buffer, count, buffer.getLong(16));
+    }
+
+    /**
+     * @return The largest {@code history_id} reflected in this snapshot.
+     */
+    public long highWater() {
+        return highWater;
+    }
+
+    /**
+     * @return The number of balances in this snapshot.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Looks up a balance. Does not allocate and is safe for concurrent use.
+     *
+     * @param msb  The UUID's most significant bits.
+     * @param lsb  The UUID's least significant bits.
+     * @param coin The coin ordinal.
+     * @return The balance, or {@code 0.0} if the snapshot has no such account.
+     */
+    public double balance(long msb, long lsb, int coin) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int pos = HEADER_SIZE + mid * RECORD_SIZE;
+            int cmp = compare(buffer.getLong(pos), buffer.getLong(pos + 8), buffer.getInt(pos + 16), msb, lsb, coin);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return buffer.getDouble(pos + 20);
+            }
+        }
+        return 0.0;
+    }
+
+    /**
+     * Streams sorted records into a new snapshot file and moves it into place atomically.
+     * The target must not exist yet: a mapped file cannot be replaced on every platform.
+     */
+    public static final class Writer implements AutoCloseable {
+
+        /** Destination file. */
+        private final File target;
+
+        /** Temporary file being written. */
+        private final File temp;
+
+        /** Channel of the temporary file. */
+        private final FileChannel channel;
+
+        /** Output buffer holding records not yet written to the channel. */
+        private final ByteBuffer pending = ByteBuffer.allocate(RECORD_SIZE * 2048);
+
+        /** Checksum over written records. */
+        private final CRC32 crc = new CRC32();
+
+        /** Records written so far. */
+        private int count;
+
+        /** Previous record key, used to enforce sort order. */
+        private long lastMsb;
+        private long lastLsb;
+        private int lastCoin = -1;
+
+        /**
+         * Opens a writer for the given target file.
+         *
+         * @param target The snapshot file to create on {@link #commit}.
+         * @throws IOException If the temporary file cannot be created.
+         */
+        public Writer(File target) throws IOException {
+            File parent = target.getParentFile();
+            if (parent != null && !parent.exists() && !parent.mkdirs()) {
+                throw new IOException("failed to create " + parent.getPath());
+            }
+            this.target = target;
+            this.temp = new File(target.getPath() + ".tmp");
+            this.channel = new RandomAccessFile(temp, "rw").getChannel();
+            channel.truncate(0);
+            channel.position(HEADER_SIZE);
+        }
+
+        /**
+         * Appends a record. Records must arrive in snapshot order.
+         *
+         * @throws IOException If the record is out of order or cannot be written.
+         */
+        public void add(long msb, long lsb, int coin, double balance) throws IOException {
+            if (count > 0 && compare(lastMsb, lastLsb, lastCoin, msb, lsb, coin) >= 0) {
+                throw new IOException("snapshot records out of order");
+            }
+            lastMsb = msb;
+            lastLsb = lsb;
+            lastCoin = coin;
+
+            if (pending.remaining() < RECORD_SIZE) flush();
+            int start = pending.position();
+            pending.putLong(msb).putLong(lsb).putInt(coin).putDouble(balance);
+            crc.update(pending.array(), start, RECORD_SIZE);
+            count++;
+        }
+
+        /**
+         * Writes the header, flushes to disk and moves the file into place.
+         *
+         * @param highWater The largest {@code history_id} reflected in the records.
+         * @throws IOException If the file cannot be finished or moved.
+         */
+        public void commit(long highWater) throws IOException {
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(count)
+                    .putLong(highWater).putLong(System.currentTimeMillis()).putLong(crc.getValue());
+            header.flip();
+            channel.position(0);
+            while (header.hasRemaining()) channel.write(header);
+            channel.force(true);
+            channel.close();
+
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        /**
+         * Writes buffered records to the channel.
+         */
+        private void flush() throws IOException {
+            pending.flip();
+            while (pending.hasRemaining()) channel.write(pending);
+            pending.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel.isOpen()) {
+                channel.close();
+                Files.deleteIfExists(temp.toPath());
+            }
+        }
+    }
+
+    /**
+     * Orders records by unsigned UUID halves (matching binary column order), then coin ordinal.
+     */
+    private static int compare(long msbA, long lsbA, int coinA, long msbB, long lsbB, int coinB) {
+        int cmp = Long.compareUnsigned(msbA, msbB);
+        if (cmp != 0) return cmp;
+        cmp = Long.compareUnsigned(lsbA, lsbB);
+        if (cmp != 0) return cmp;
+        return Integer.compare(coinA, coinB);
+    }
+
+    /**
+     * Computes the CRC32 of the record region.
+     */
+    private static long checksum(MappedByteBuffer buffer, int count) {
+        ByteBuffer records = buffer.duplicate();
+        records.position(HEADER_SIZE).limit(HEADER_SIZE + count * RECORD_SIZE);
+        CRC32 crc = new CRC32();
+        crc.update(records);
+        return crc.getValue();
+    }
+}
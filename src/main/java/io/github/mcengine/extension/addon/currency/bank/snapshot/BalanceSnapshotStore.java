@@ -0,0 +1,295 @@
+package io.github.mcengine.extension.addon.currency.bank.snapshot;
+
+import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
+import io.github.mcengine.extension.addon.currency.bank.database.BankSchema;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves bank balances from the current {@link BalanceSnapshot} and keeps it honest.
+ * <p>
+ * Accounts written after the snapshot was taken are tracked as dirty and read from the
+ * database instead. Each dirty mark carries the history id of the change; when a new snapshot
+ * is written, only marks at or below its high-water mark are cleared, so a write the snapshot
+ * did not see is never lost. Snapshots are read from, and verified against, the primary
+ * ({@link io.github.mcengine.extension.addon.currency.bank.database.BankConnectionManager#readPrimary()}),
+ * never a lagging replica. Bulk changes (interest payouts) disable the snapshot until the
+ * next one is written.
+ * <p>
+ * Lifecycle: {@link #load} maps the newest file at startup so reads are served immediately,
+ * {@link #verify} checks it against the database high-water mark in the background, and
+ * {@link #write} periodically takes a new one.
+ * <p>
+ * Every write goes to a new file, {@code balances-<n>.snapshot} with increasing {@code n}, because
+ * a memory-mapped file cannot be replaced on Windows. Older files are deleted once they are no
+ * longer mapped; a delete that fails is retried after the next write. If more than
+ * {@value #MAX_DIRTY} accounts are marked dirty (for example because writes keep failing), the
+ * snapshot is dropped instead of tracking more.
+ */
+public final class BalanceSnapshotStore {
+
+    /** Directory of the snapshot files, relative to the plugin data folder. */
+    private static final String SNAPSHOT_DIR = "data/addons/MCEngineBank";
+
+    /** Snapshot file name prefix, followed by the file's sequence number. */
+    private static final String FILE_PREFIX = "balances-";
+
+    /** Snapshot file name suffix. */
+    private static final String FILE_SUFFIX = ".snapshot";
+
+    /** Above this many accounts changed since the snapshot, it is discarded. */
+    private static final int MAX_DIRTY = 10_000;
+
+    /** The snapshot in use, or {@code null} if none is usable. */
+    private static volatile BalanceSnapshot current;
+
+    /** Accounts changed since {@link #current} was taken, keyed by uuid and coin, valued by the change's history id. */
+    private static final Map<Key, Long> DIRTY = new ConcurrentHashMap<>();
+
+    /** Incremented by {@link #invalidate}; a snapshot taken across an invalidation is not used. */
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    /**
+     * Identifies one account balance.
+     *
+     * @param msb  The UUID's most significant bits.
+     * @param lsb  The UUID's least significant bits.
+     * @param coin The coin ordinal.
+     */
+    private record Key(long msb, long lsb, int coin) {
+    }
+
+    private BalanceSnapshotStore() {
+    }
+
+    /**
+     * Resolves the snapshot directory.
+     *
+     * @param plugin The plugin whose data folder holds the snapshots.
+     * @return The snapshot directory.
+     */
+    public static File directoryFor(Plugin plugin) {
+        return new File(plugin.getDataFolder(), SNAPSHOT_DIR);
+    }
+
+    /**
+     * Maps the newest valid snapshot file, if any, so it can serve reads immediately.
+     * Leftover temporary files from an interrupted write are removed.
+     *
+     * @param dir    The snapshot directory.
+     * @param logger The logger used to report the outcome.
+     */
+    public static void load(File dir, MCEngineAddOnLogger logger) {
+        File[] temps = dir.listFiles((d, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX + ".tmp"));
+        if (temps != null) {
+            for (File temp : temps) temp.delete();
+        }
+
+        long started = System.nanoTime();
+        for (File file : snapshotFiles(dir)) {
+            try {
+                BalanceSnapshot snapshot = BalanceSnapshot.open(file);
+                current = snapshot;
+                logger.info("Mapped balance snapshot " + file.getName() + " with " + snapshot.count() + " balances in "
+                        + (System.nanoTime() - started) / 1_000_000L + " ms.");
+                return;
+            } catch (IOException e) {
+                logger.warning("Ignoring balance snapshot " + file.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if a snapshot is mapped and serving reads.
+     */
+    public static boolean isAvailable() {
+        return current != null;
+    }
+
+    /**
+     * Reads a balance from the snapshot.
+     *
+     * @param uuid The player UUID.
+     * @param coin The coin ordinal.
+     * @return The balance, or {@link Double#NaN} if the snapshot cannot answer and the database must be used.
+     */
+    public static double balance(UUID uuid, int coin) {
+        BalanceSnapshot snapshot = current;
+        if (snapshot == null) return Double.NaN;
+
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        if (!DIRTY.isEmpty() && DIRTY.containsKey(new Key(msb, lsb, coin))) return Double.NaN;
+
+        return snapshot.balance(msb, lsb, coin);
+    }
+
+    /**
+     * Marks one account as changed since the snapshot. Call after the change is committed.
+     *
+     * @param uuid      The player UUID.
+     * @param coin      The coin ordinal.
+     * @param historyId The id of the history row logging the change, or {@link Long#MAX_VALUE} if unknown
+     *                  (the mark is then kept until the snapshot is invalidated).
+     */
+    public static void markDirty(UUID uuid, int coin, long historyId) {
+        DIRTY.merge(new Key(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), coin), historyId, Math::max);
+        if (DIRTY.size() > MAX_DIRTY) invalidate();
+    }
+
+    /**
+     * Stops serving reads from the snapshot until the next one is written.
+     * Call before bulk balance changes.
+     */
+    public static synchronized void invalidate() {
+        GENERATION.incrementAndGet();
+        current = null;
+        // Any snapshot written from here on is read after these changes, and one already in progress is discarded.
+        DIRTY.clear();
+    }
+
+    /**
+     * Checks the mapped snapshot against the database. Accounts with history after the snapshot's
+     * high-water mark are marked dirty; if there are too many, or the database is behind the
+     * snapshot, the snapshot is discarded.
+     *
+     * @param conn   A read connection to the primary.
+     * @param logger The logger used to report the outcome.
+     * @throws SQLException If the history cannot be read.
+     */
+    public static void verify(Connection conn, MCEngineAddOnLogger logger) throws SQLException {
+        BalanceSnapshot snapshot = current;
+        if (snapshot == null) return;
+
+        long highWater = maxHistoryId(conn);
+        if (highWater < snapshot.highWater()) {
+            current = null;
+            logger.warning("Balance snapshot is ahead of the database; discarded.");
+            return;
+        }
+
+        int changed = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT uuid, coin_type, MAX(history_id) FROM currency_bank_history WHERE history_id > ? " +
+                        "GROUP BY uuid, coin_type;")) {
+            stmt.setLong(1, snapshot.highWater());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (++changed > MAX_DIRTY) {
+                        current = null;
+                        logger.warning("Balance snapshot is too far behind the database; discarded.");
+                        return;
+                    }
+                    byte[] uuid = rs.getBytes(1);
+                    if (uuid != null) markDirty(BankSchema.fromBytes(uuid), rs.getInt(2), rs.getLong(3));
+                }
+            }
+        }
+
+        logger.info("Balance snapshot verified; " + changed + " balances changed since it was written.");
+    }
+
+    /**
+     * Writes a fresh snapshot of every balance to a new file, switches reads to it and deletes older files.
+     *
+     * @param conn   A read connection to the primary; used in a single transaction for a consistent view.
+     * @param dir    The snapshot directory.
+     * @param logger The logger used to report the outcome.
+     * @throws SQLException If the balances cannot be read.
+     * @throws IOException  If the file cannot be written.
+     */
+    public static void write(Connection conn, File dir, MCEngineAddOnLogger logger) throws SQLException, IOException {
+        List<File> existing = snapshotFiles(dir);
+        File file = new File(dir, FILE_PREFIX + (existing.isEmpty() ? 1 : sequenceOf(existing.get(0)) + 1) + FILE_SUFFIX);
+
+        long started = System.nanoTime();
+        long generation = GENERATION.get();
+        long highWater;
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (BalanceSnapshot.Writer writer = new BalanceSnapshot.Writer(file)) {
+            highWater = maxHistoryId(conn);
+            try (Statement statement = conn.createStatement();
+                 ResultSet rs = statement.executeQuery(
+                         "SELECT uuid, coin_type, balance FROM currency_bank ORDER BY uuid, coin_type;")) {
+                while (rs.next()) {
+                    UUID uuid = BankSchema.fromBytes(rs.getBytes(1));
+                    writer.add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), rs.getInt(2), rs.getDouble(3));
+                }
+            }
+            conn.commit();
+            writer.commit(highWater);
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+
+        BalanceSnapshot snapshot = BalanceSnapshot.open(file);
+        synchronized (BalanceSnapshotStore.class) {
+            if (GENERATION.get() != generation) {
+                // A bulk change ran while the balances were being read; the next run will catch it.
+                logger.info("Balance snapshot superseded by a bulk change; not used until the next write.");
+                return;
+            }
+            current = snapshot;
+            // Changes logged at or below the high-water mark are in the snapshot; later ones stay dirty
+            DIRTY.values().removeIf(historyId -> historyId <= snapshot.highWater());
+        }
+
+        logger.info("Wrote balance snapshot " + file.getName() + " with " + snapshot.count() + " balances in "
+                + (System.nanoTime() - started) / 1_000_000L + " ms.");
+
+        // Older files may still be mapped until their buffers are collected; those deletes fail and are retried next time.
+        for (File old : existing) old.delete();
+    }
+
+    /**
+     * Lists snapshot files, newest first.
+     *
+     * @param dir The snapshot directory.
+     * @return Files named {@code balances-<n>.snapshot}, by descending {@code n}.
+     */
+    private static List<File> snapshotFiles(File dir) {
+        File[] files = dir.listFiles((d, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+        List<File> found = new ArrayList<>();
+        if (files == null) return found;
+
+        for (File file : files) {
+            if (sequenceOf(file) > 0) found.add(file);
+        }
+        found.sort(Comparator.comparingLong(BalanceSnapshotStore::sequenceOf).reversed());
+        return found;
+    }
+
+    /**
+     * @return The sequence number in a snapshot file name, or -1 if the name does not carry one.
+     */
+    private static long sequenceOf(File file) {
+        String name = file.getName();
+        try {
+            return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Reads the database high-water mark.
+     */
+    private static long maxHistoryId(Connection conn) throws SQLException {
+        try (Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT MAX(history_id) FROM currency_bank_history;")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
@@ -1,29 +1,32 @@
 package io.github.mcengine.extension.addon.currency.bank.tabcompleter;
 
+import io.github.mcengine.extension.addon.currency.bank.registry.BankCoinRegistry;
+import io.github.mcengine.extension.addon.currency.bank.registry.PrefixTable;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 /**
  * Tab completer for the /bank command.
  * Provides auto-completion for subcommands and coin types.
+ * <p>
+ * Suggestions come from precomputed prefix tables, so completion allocates nothing per keystroke.
  */
 public class BankTabCompleter implements TabCompleter {
 
     /**
-     * List of supported subcommands for the /bank command.
+     * Supported subcommands for the /bank command.
      * Includes actions players can perform such as depositing or withdrawing.
      */
-    private final List<String> subCommands = List.of("deposit", "withdraw", "balance");
+    private final PrefixTable subCommands = new PrefixTable(List.of("deposit", "withdraw", "balance", "admin"));
 
     /**
-     * List of supported coin types used in the bank system.
+     * Supported subcommands for /bank admin.
      */
-    private final List<String> coinTypes = List.of("coin", "copper", "silver", "gold");
+    private final PrefixTable adminCommands = new PrefixTable(List.of("report"));
 
     /**
      * Provides tab completion suggestions for the /bank command.
@@ -38,24 +41,15 @@ public class BankTabCompleter implements TabCompleter {
     public List<String> onTabComplete(CommandSender sender, Command command, String label, String[] args) {
         if (args.length == 1) {
             // Suggest subcommands
-            List<String> suggestions = new ArrayList<>();
-            for (String sub : subCommands) {
-                if (sub.startsWith(args[0].toLowerCase())) {
-                    suggestions.add(sub);
-                }
-            }
-            return suggestions;
+            return subCommands.complete(args[0]);
         }
 
-        if (args.length == 2 && subCommands.contains(args[0].toLowerCase())) {
-            // Suggest coin types for known subcommands
-            List<String> suggestions = new ArrayList<>();
-            for (String coin : coinTypes) {
-                if (coin.startsWith(args[1].toLowerCase())) {
-                    suggestions.add(coin);
-                }
-            }
-            return suggestions;
+        if (args.length == 2) {
+            String sub = subCommands.match(args[0]);
+            if (sub == null) return Collections.emptyList();
+
+            // Suggest admin actions or coin types for known subcommands
+            return sub.equals("admin") ? adminCommands.complete(args[1]) : BankCoinRegistry.complete(args[1]);
         }
 
         return Collections.emptyList();
@@ -42,7 +42,19 @@ public class InterestConfigGenerator {
                 "# Schedule supports cron syntax:\n" +
                 "# minute hour day_of_month month day_of_week\n" +
                 "# Example: '0 0 * * *' means daily at midnight.\n" +
-                "# Website for creating a schedule: https://www.freeformatter.com/cron-expression-generator-quartz.html" +
+                "# Website for creating a schedule: https://www.freeformatter.com/cron-expression-generator-quartz.html\n" +
+                "#\n" +
+                "# Every file in this folder is scheduled unless it sets 'enabled: false'.\n" +
+                "#\n" +
+                "# Each interest entry is a bracket: accounts whose bank balance is at least\n" +
+                "# 'amount' earn 'interest_rate' percent of their balance per run. The highest\n" +
+                "# matching bracket applies. A daily run at 1 percent is about 365 percent a year.\n" +
+                "# progressive: true  -> each slice of the balance earns the rate of its bracket.\n" +
+                "# cap:                -> maximum interest per account per run, per coin type.\n" +
+                "#                        Without a cap, payouts per account are unlimited.\n" +
+                "# set_based: true    -> pay all accounts with one SQL update instead of in chunks.\n" +
+                "#\n" +
+                "# This example is disabled. Review the rates and caps, then set 'enabled: true'.\n" +
                 "#\n" +
                 "# Example Structure:\n" +
                 "# interest:\n" +
@@ -50,18 +62,31 @@ public class InterestConfigGenerator {
                 "#     amount: 100000\n" +
                 "#     coin_type: coin\n" +
                 "#     interest_rate: 2\n" +
+                "# progressive: false\n" +
+                "# cap:\n" +
+                "#   coin: 10000\n" +
                 "# schedule: '0 0 * * *'\n\n";
 
         String content = header +
+                "enabled: false\n\n" +
                 "interest:\n" +
                 "  1:\n" +
-                "    amount: 100000\n" +
+                "    amount: 1000\n" +
                 "    coin_type: coin\n" +
-                "    interest_rate: 2\n" +
+                "    interest_rate: 0.01\n" +
                 "  2:\n" +
+                "    amount: 100000\n" +
+                "    coin_type: coin\n" +
+                "    interest_rate: 0.02\n" +
+                "  3:\n" +
                 "    amount: 50000\n" +
                 "    coin_type: silver\n" +
-                "    interest_rate: 1.5\n\n" +
+                "    interest_rate: 0.01\n\n" +
+                "progressive: true\n" +
+                "cap:\n" +
+                "  coin: 100\n" +
+                "  silver: 10\n" +
+                "set_based: false\n\n" +
                 "schedule: '0 0 * * *'\n";
 
         try (FileWriter writer = new FileWriter(file)) {
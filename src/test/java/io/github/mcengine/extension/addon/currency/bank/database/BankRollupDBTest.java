@@ -0,0 +1,195 @@
+package io.github.mcengine.extension.addon.currency.bank.database;
+
+import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
+import io.github.mcengine.extension.addon.currency.bank.database.migration.BankMigrationRunner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Folds history into the daily rollups on SQLite and compares the result with a direct
+ * aggregation of {@code currency_bank_history}.
+ */
+class BankRollupDBTest {
+
+    private static final byte[] PLAYER = BankSchema.toBytes(UUID.fromString("00000000-0000-4000-8000-000000000001"));
+
+    @TempDir
+    File dir;
+
+    private Connection conn;
+    private Connection other;
+
+    @BeforeEach
+    void open() throws SQLException {
+        String url = "jdbc:sqlite:" + new File(dir, "bank.db").getPath();
+        conn = DriverManager.getConnection(url);
+        assertTrue(BankMigrationRunner.migrate(conn, mock(MCEngineAddOnLogger.class)));
+        other = DriverManager.getConnection(url);
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        other.close();
+        conn.close();
+    }
+
+    @Test
+    void foldsHistoryInBatchesExactlyOnce() throws SQLException {
+        log("2024-03-01 08:00:00", 0, BankSchema.CHANGE_DEPOSIT, 10);
+        log("2024-03-01 09:00:00", 0, BankSchema.CHANGE_DEPOSIT, 2.5);
+        log("2024-03-01 23:59:59", 0, BankSchema.CHANGE_WITHDRAW, 4);
+        log("2024-03-02 00:00:00", 0, BankSchema.CHANGE_DEPOSIT, 7);
+        log("2024-03-02 12:00:00", 3, BankSchema.CHANGE_INTEREST, 0.5);
+        log("2024-03-03 12:00:00", 1, BankSchema.CHANGE_DEPOSIT, 1);
+        long last = log("2024-03-03 13:00:00", 1, BankSchema.CHANGE_DEPOSIT, 1);
+
+        // 7 rows in batches of 3: ranges (0,3], (3,6], (6,7]
+        assertEquals(last, BankRollupDB.catchUp(conn, 3));
+        assertEquals(directAggregate(), rollups());
+        assertEquals(last, watermark());
+    }
+
+    @Test
+    void laterRunsMergeIntoExistingDays() throws SQLException {
+        log("2024-03-01 08:00:00", 0, BankSchema.CHANGE_DEPOSIT, 10);
+        log("2024-03-02 08:00:00", 2, BankSchema.CHANGE_WITHDRAW, 3);
+        BankRollupDB.catchUp(conn, 2);
+        long rows = count();
+
+        log("2024-03-01 20:00:00", 0, BankSchema.CHANGE_DEPOSIT, 5);
+        log("2024-03-02 20:00:00", 2, BankSchema.CHANGE_WITHDRAW, 1.25);
+        long last = log("2024-03-04 08:00:00", 0, BankSchema.CHANGE_INTEREST, 0.75);
+
+        assertEquals(last, BankRollupDB.catchUp(conn, 2));
+
+        assertEquals(rows + 1, count(), "only the new day gets a new row");
+        assertEquals(directAggregate(), rollups());
+    }
+
+    @Test
+    void rerunWithNothingNewChangesNothing() throws SQLException {
+        log("2024-03-01 08:00:00", 0, BankSchema.CHANGE_DEPOSIT, 10);
+        long last = log("2024-03-01 09:00:00", 0, BankSchema.CHANGE_DEPOSIT, 1);
+        BankRollupDB.catchUp(conn, 100);
+        List<String> before = rollups();
+
+        assertEquals(last, BankRollupDB.catchUp(conn, 100));
+        assertEquals(before, rollups());
+    }
+
+    @Test
+    void runThatLosesTheWatermarkRaceFoldsNothing() throws SQLException {
+        for (int i = 0; i < 5; i++) log("2024-03-01 0" + i + ":00:00", 0, BankSchema.CHANGE_DEPOSIT, i + 1);
+        long last = log("2024-03-02 00:00:00", 1, BankSchema.CHANGE_WITHDRAW, 2);
+
+        // A second run on another connection completes after this run read its watermark,
+        // right before this run tries to advance it
+        boolean[] raced = new boolean[1];
+        Connection racing = onPrepare(conn, "UPDATE currency_bank_rollup_state", () -> {
+            if (raced[0]) return;
+            raced[0] = true;
+            assertEquals(last, BankRollupDB.catchUp(other, 100));
+        });
+
+        assertEquals(last, BankRollupDB.catchUp(racing, 2));
+
+        assertTrue(raced[0]);
+        assertEquals(directAggregate(), rollups());
+        assertEquals(last, watermark());
+    }
+
+    /**
+     * Inserts one history row.
+     *
+     * @return The new history id.
+     */
+    private long log(String createdTime, int coin, int change, double amount) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO currency_bank_history (uuid, change_amount, change_type, coin_type, created_time) " +
+                        "VALUES (?, ?, ?, ?, ?);", Statement.RETURN_GENERATED_KEYS)) {
+            insert.setBytes(1, PLAYER);
+            insert.setDouble(2, amount);
+            insert.setInt(3, change);
+            insert.setInt(4, coin);
+            insert.setString(5, createdTime);
+            insert.executeUpdate();
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                assertTrue(keys.next());
+                return keys.getLong(1);
+            }
+        }
+    }
+
+    private List<String> directAggregate() throws SQLException {
+        return rows("SELECT DATE(created_time), coin_type, change_type, SUM(change_amount), COUNT(*) " +
+                "FROM currency_bank_history GROUP BY DATE(created_time), coin_type, change_type " +
+                "ORDER BY 1, 2, 3;");
+    }
+
+    private List<String> rollups() throws SQLException {
+        return rows("SELECT day, coin_type, change_type, total, entries FROM currency_bank_daily_rollup " +
+                "ORDER BY day, coin_type, change_type;");
+    }
+
+    private List<String> rows(String sql) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (Statement statement = conn.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                rows.add(rs.getString(1) + " " + rs.getInt(2) + " " + rs.getInt(3) + " "
+                        + rs.getDouble(4) + " x" + rs.getLong(5));
+            }
+        }
+        assertFalse(rows.isEmpty());
+        return rows;
+    }
+
+    private long count() throws SQLException {
+        try (Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM currency_bank_daily_rollup;")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private long watermark() throws SQLException {
+        try (Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT last_history_id FROM currency_bank_rollup_state WHERE id = 1;")) {
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Wraps a connection so the hook runs whenever a statement starting with the given SQL is prepared.
+     */
+    private static Connection onPrepare(Connection conn, String sqlPrefix, SqlAction hook) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("prepareStatement") && ((String) args[0]).startsWith(sqlPrefix)) {
+                        hook.run();
+                    }
+                    try {
+                        return method.invoke(conn, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface SqlAction {
+        void run() throws SQLException;
+    }
+}
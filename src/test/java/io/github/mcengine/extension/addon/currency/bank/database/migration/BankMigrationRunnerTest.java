@@ -0,0 +1,197 @@
+package io.github.mcengine.extension.addon.currency.bank.database.migration;
+
+import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
+import io.github.mcengine.extension.addon.currency.bank.database.BankSchema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs the bank schema migrations against an in-memory SQLite database.
+ */
+class BankMigrationRunnerTest {
+
+    private static final UUID ALICE = UUID.fromString("00000000-0000-4000-8000-000000000001");
+    private static final UUID BOB = UUID.fromString("ffffffff-ffff-4fff-bfff-ffffffffffff");
+
+    private Connection conn;
+    private MCEngineAddOnLogger logger;
+
+    @BeforeEach
+    void open() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        logger = mock(MCEngineAddOnLogger.class);
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void upgradesLegacyTablesToLatestSchema() throws SQLException {
+        createLegacyTables();
+        execute("INSERT INTO currency_bank (bank_id, uuid, coin_type, balance, last_interest_time) VALUES " +
+                "(1, '" + ALICE + "', 'gold', 100.5, '2024-01-02 03:04:05'), " +
+                "(2, '" + BOB + "', 'coin', 7, '2024-01-03 00:00:00'), " +
+                "(3, 'not-a-uuid', 'silver', 3, '2024-01-03 00:00:00'), " +
+                "(4, '" + BOB + "', 'platinum', 9, '2024-01-03 00:00:00');");
+        execute("INSERT INTO currency_bank_history (history_id, uuid, change_amount, change_type, coin_type, note, created_time) VALUES " +
+                "(1, '" + ALICE + "', 10, 'deposit', 'gold', 'first', '2024-01-02 03:04:05'), " +
+                "(2, NULL, 5, 'withdraw', 'coin', NULL, '2024-01-02 04:00:00'), " +
+                "(3, '" + ALICE + "', 1, 'refund', 'gold', NULL, '2024-01-02 05:00:00');");
+
+        assertTrue(BankMigrationRunner.migrate(conn, logger));
+
+        assertEquals(5, queryLong("SELECT MAX(version) FROM currency_bank_schema_version;"));
+        assertEquals(100.5, balance(ALICE, 3));
+        assertEquals(7.0, balance(BOB, 0));
+        assertEquals(2, queryLong("SELECT COUNT(*) FROM currency_bank;"));
+
+        assertEquals(2, queryLong("SELECT COUNT(*) FROM currency_bank_history;"));
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM currency_bank_history WHERE uuid IS NULL;"));
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT DATE(created_time), change_type, coin_type FROM currency_bank_history WHERE uuid = ?;")) {
+            stmt.setBytes(1, BankSchema.toBytes(ALICE));
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals("2024-01-02", rs.getString(1));
+                assertEquals(BankSchema.CHANGE_DEPOSIT, rs.getInt(2));
+                assertEquals(3, rs.getInt(3));
+            }
+        }
+
+        assertEquals(3, queryLong("SELECT COUNT(*) FROM currency_bank_v2_rejected;"));
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM currency_bank_v2_rejected " +
+                "WHERE source_table = 'currency_bank' AND source_id = 3 AND reason = 'malformed uuid';"));
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM currency_bank_v2_rejected " +
+                "WHERE source_table = 'currency_bank' AND source_id = 4 AND reason = 'unknown coin type' AND amount = 9;"));
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM currency_bank_v2_rejected " +
+                "WHERE source_table = 'currency_bank_history' AND source_id = 3 AND reason = 'unknown change type';"));
+        verify(logger).warning(argThat(message -> message.contains("2 balance row(s) and 1 history row(s)")));
+
+        assertFalse(MigrationSupport.columnExists(conn, "currency_bank", "bank_id"));
+        assertFalse(MigrationSupport.tableExists(conn, "currency_bank_legacy"));
+        assertFalse(MigrationSupport.tableExists(conn, "currency_bank_unclustered"));
+        assertEquals(4, queryLong("SELECT COUNT(*) FROM currency_bank_coin_type;"));
+        assertEquals(0, queryLong("SELECT last_history_id FROM currency_bank_rollup_state WHERE id = 1;"));
+    }
+
+    @Test
+    void clusteredKeyRejectsDuplicateAccounts() throws SQLException {
+        assertTrue(BankMigrationRunner.migrate(conn, logger));
+
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO currency_bank (uuid, coin_type, balance) VALUES (?, 0, 1);")) {
+            insert.setBytes(1, BankSchema.toBytes(ALICE));
+            insert.executeUpdate();
+            assertThrows(SQLException.class, insert::executeUpdate);
+        }
+    }
+
+    @Test
+    void secondRunChangesNothing() throws SQLException {
+        createLegacyTables();
+        execute("INSERT INTO currency_bank (uuid, coin_type, balance) VALUES ('" + ALICE + "', 'coin', 42);");
+        assertTrue(BankMigrationRunner.migrate(conn, logger));
+
+        assertTrue(BankMigrationRunner.migrate(conn, logger));
+
+        assertEquals(5, queryLong("SELECT COUNT(*) FROM currency_bank_schema_version;"));
+        assertEquals(42.0, balance(ALICE, 0));
+    }
+
+    @Test
+    void resumesStepsWhoseDdlWasAlreadyCommitted() throws SQLException {
+        assertTrue(BankMigrationRunner.migrate(conn, logger));
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO currency_bank (uuid, coin_type, balance) VALUES (?, 1, 5);")) {
+            insert.setBytes(1, BankSchema.toBytes(BOB));
+            insert.executeUpdate();
+        }
+
+        // As after a MySQL failure: V3-V5 DDL is in place but their version rows were never written
+        execute("DELETE FROM currency_bank_schema_version WHERE version >= 3;");
+
+        assertTrue(BankMigrationRunner.migrate(conn, logger));
+
+        assertEquals(5, queryLong("SELECT MAX(version) FROM currency_bank_schema_version;"));
+        assertEquals(5.0, balance(BOB, 1));
+        assertEquals(4, queryLong("SELECT COUNT(*) FROM currency_bank_coin_type;"));
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM currency_bank_rollup_state;"));
+    }
+
+    @Test
+    void finishesAnInterruptedTableSwap() throws SQLException {
+        createLegacyTables();
+        execute("INSERT INTO currency_bank (uuid, coin_type, balance) VALUES ('" + ALICE + "', 'silver', 12);");
+        assertTrue(BankMigrationRunner.migrate(conn, logger));
+
+        // As after a MySQL failure in V2 between renaming the legacy table away and the new one in
+        execute("DELETE FROM currency_bank_schema_version WHERE version >= 2;");
+        execute("ALTER TABLE currency_bank RENAME TO currency_bank_new;");
+        execute("CREATE TABLE currency_bank_legacy (uuid VARCHAR(36));");
+
+        assertTrue(BankMigrationRunner.migrate(conn, logger));
+
+        assertEquals(12.0, balance(ALICE, 2));
+        assertFalse(MigrationSupport.tableExists(conn, "currency_bank_new"));
+        assertFalse(MigrationSupport.tableExists(conn, "currency_bank_legacy"));
+    }
+
+    /**
+     * Creates the legacy tables as an install from before schema versioning may have them,
+     * without the CHECK constraints older MySQL servers ignored.
+     */
+    private void createLegacyTables() throws SQLException {
+        execute("CREATE TABLE currency_bank (" +
+                "bank_id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "uuid VARCHAR(36) NOT NULL, " +
+                "coin_type VARCHAR(16) NOT NULL, " +
+                "balance DOUBLE DEFAULT 0.0, " +
+                "interest_rate DOUBLE DEFAULT 0.0, " +
+                "last_interest_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                "UNIQUE(uuid, coin_type));");
+        execute("CREATE TABLE currency_bank_history (" +
+                "history_id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "uuid VARCHAR(36), " +
+                "change_amount DOUBLE, " +
+                "change_type VARCHAR(16) NOT NULL, " +
+                "coin_type VARCHAR(16) NOT NULL, " +
+                "note TEXT, " +
+                "created_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP);");
+    }
+
+    private double balance(UUID uuid, int coin) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT balance FROM currency_bank WHERE uuid = ? AND coin_type = ?;")) {
+            stmt.setBytes(1, BankSchema.toBytes(uuid));
+            stmt.setInt(2, coin);
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next(), "no balance for " + uuid + " / " + coin);
+                return rs.getDouble(1);
+            }
+        }
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Statement statement = conn.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = conn.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+}
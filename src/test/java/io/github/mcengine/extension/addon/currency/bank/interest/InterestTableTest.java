@@ -0,0 +1,134 @@
+package io.github.mcengine.extension.addon.currency.bank.interest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks bracket selection, progressive and capped interest, and that {@link InterestTable#toSqlCase}
+ * computes the same interest as the Java path.
+ */
+class InterestTableTest {
+
+    private static final double EPSILON = 1e-9;
+
+    /** Brackets: 1% from 0, 2% from 1,000, 3% from 10,000 (deliberately unsorted). */
+    private static final double[] THRESHOLDS = {10_000, 0, 1_000};
+    private static final double[] PERCENTS = {3, 1, 2};
+
+    private static final double[] BALANCES = {
+            -5, 0, 0.5, 999.99, 1_000, 1_000.01, 5_000, 9_999.99, 10_000, 20_000, 123_456.78
+    };
+
+    private static Connection sqlite;
+
+    @BeforeAll
+    static void open() throws SQLException {
+        sqlite = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+
+    @AfterAll
+    static void close() throws SQLException {
+        sqlite.close();
+    }
+
+    @Test
+    void flatPaysTheBracketRateOnTheWholeBalance() {
+        InterestTable table = new InterestTable(THRESHOLDS, PERCENTS, false, 0);
+
+        assertEquals(0.0, table.interestFor(-5), EPSILON);
+        assertEquals(5.0, table.interestFor(500), EPSILON);
+        assertEquals(20.0, table.interestFor(1_000), EPSILON);
+        assertEquals(600.0, table.interestFor(20_000), EPSILON);
+        assertEquals(0.0, table.minimumBalance(), EPSILON);
+    }
+
+    @Test
+    void progressivePaysEachSliceAtItsOwnRate() {
+        InterestTable table = new InterestTable(THRESHOLDS, PERCENTS, true, 0);
+
+        assertEquals(5.0, table.interestFor(500), EPSILON);
+        assertEquals(10.0, table.interestFor(1_000), EPSILON);
+        // 1,000 at 1% + 9,000 at 2% + 10,000 at 3%
+        assertEquals(10 + 180 + 300, table.interestFor(20_000), EPSILON);
+    }
+
+    @Test
+    void capLimitsInterestPerAccount() {
+        InterestTable table = new InterestTable(THRESHOLDS, PERCENTS, false, 50);
+
+        assertEquals(5.0, table.interestFor(500), EPSILON);
+        assertEquals(50.0, table.interestFor(20_000), EPSILON);
+    }
+
+    @Test
+    void balancesBelowTheLowestBracketEarnNothing() {
+        InterestTable table = new InterestTable(new double[]{100}, new double[]{5}, false, 0);
+
+        assertEquals(100.0, table.minimumBalance(), EPSILON);
+        assertEquals(0.0, table.interestFor(99.99), EPSILON);
+        assertEquals(5.0, table.interestFor(100), EPSILON);
+    }
+
+    @Test
+    void batchMatchesSingleLookups() {
+        InterestTable table = new InterestTable(THRESHOLDS, PERCENTS, true, 250);
+        double[] expected = new double[BALANCES.length];
+        for (int i = 0; i < BALANCES.length; i++) expected[i] = table.interestFor(BALANCES[i]);
+
+        double[] out = new double[BALANCES.length];
+        table.interestFor(BALANCES, BALANCES.length, out);
+
+        assertArrayEquals(expected, out, EPSILON);
+    }
+
+    @Test
+    void sqlCaseMatchesJavaForFlatBrackets() throws SQLException {
+        assertSqlMatchesJava(new InterestTable(THRESHOLDS, PERCENTS, false, 0));
+    }
+
+    @Test
+    void sqlCaseMatchesJavaForProgressiveBrackets() throws SQLException {
+        assertSqlMatchesJava(new InterestTable(THRESHOLDS, PERCENTS, true, 0));
+    }
+
+    @Test
+    void sqlCaseMatchesJavaWithCap() throws SQLException {
+        assertSqlMatchesJava(new InterestTable(THRESHOLDS, PERCENTS, false, 50));
+        assertSqlMatchesJava(new InterestTable(THRESHOLDS, PERCENTS, true, 250));
+    }
+
+    @Test
+    void sqlCaseOfEmptyTableIsZero() throws SQLException {
+        assertSqlMatchesJava(new InterestTable(new double[0], new double[0], false, 0));
+    }
+
+    /**
+     * Evaluates the table's CASE expression in SQLite for every test balance and compares it to
+     * {@link InterestTable#interestFor(double)}. Negative SQL results are clamped like the payout
+     * statements' {@code > 0} filter does.
+     */
+    private static void assertSqlMatchesJava(InterestTable table) throws SQLException {
+        try (PreparedStatement stmt = sqlite.prepareStatement(
+                "SELECT " + table.toSqlCase("balance") + " FROM (SELECT CAST(? AS REAL) AS balance);")) {
+            for (double balance : BALANCES) {
+                stmt.setDouble(1, balance);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(table.interestFor(balance), Math.max(rs.getDouble(1), 0.0), EPSILON,
+                            "balance " + balance);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package io.github.mcengine.extension.addon.currency.bank.snapshot;
+
+import io.github.mcengine.api.core.extension.addon.MCEngineAddOnLogger;
+import io.github.mcengine.extension.addon.currency.bank.database.BankSchema;
+import io.github.mcengine.extension.addon.currency.bank.database.migration.BankMigrationRunner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Writes balance snapshots from a migrated SQLite database and checks what the store serves.
+ */
+class BalanceSnapshotStoreTest {
+
+    /** Sorts first as an unsigned uuid, last as a signed one. */
+    private static final UUID LOW = UUID.fromString("00000000-0000-4000-8000-000000000001");
+
+    /** Sorts last as an unsigned uuid, first as a signed one. */
+    private static final UUID HIGH = UUID.fromString("ffffffff-ffff-4fff-bfff-ffffffffffff");
+
+    private static final UUID MIDDLE = UUID.fromString("80000000-0000-4000-8000-000000000000");
+
+    @TempDir
+    File dir;
+
+    private File snapshots;
+    private Connection writer;
+    private Connection reader;
+    private MCEngineAddOnLogger logger;
+
+    @BeforeEach
+    void open() throws SQLException {
+        BalanceSnapshotStore.invalidate();
+        snapshots = new File(dir, "snapshots");
+        logger = mock(MCEngineAddOnLogger.class);
+
+        String url = "jdbc:sqlite:" + new File(dir, "bank.db").getPath();
+        writer = DriverManager.getConnection(url);
+        try (Statement statement = writer.createStatement()) {
+            statement.execute("PRAGMA journal_mode = WAL;");
+        }
+        assertTrue(BankMigrationRunner.migrate(writer, logger));
+        reader = DriverManager.getConnection(url);
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        BalanceSnapshotStore.invalidate();
+        reader.close();
+        writer.close();
+    }
+
+    @Test
+    void servesWrittenBalancesAfterReopening() throws Exception {
+        deposit(HIGH, 0, 30);
+        deposit(LOW, 0, 10);
+        deposit(LOW, 3, 11);
+        deposit(MIDDLE, 2, 20);
+
+        BalanceSnapshotStore.write(reader, snapshots, logger);
+        assertEquals(10.0, BalanceSnapshotStore.balance(LOW, 0));
+
+        // A restart maps the file again
+        BalanceSnapshotStore.invalidate();
+        assertFalse(BalanceSnapshotStore.isAvailable());
+        BalanceSnapshotStore.load(snapshots, logger);
+
+        assertTrue(BalanceSnapshotStore.isAvailable());
+        assertEquals(10.0, BalanceSnapshotStore.balance(LOW, 0));
+        assertEquals(11.0, BalanceSnapshotStore.balance(LOW, 3));
+        assertEquals(20.0, BalanceSnapshotStore.balance(MIDDLE, 2));
+        assertEquals(30.0, BalanceSnapshotStore.balance(HIGH, 0));
+        assertEquals(0.0, BalanceSnapshotStore.balance(HIGH, 1));
+        assertEquals(0.0, BalanceSnapshotStore.balance(UUID.randomUUID(), 0));
+    }
+
+    @Test
+    void eachWriteReplacesOlderFiles() throws Exception {
+        deposit(LOW, 0, 10);
+        BalanceSnapshotStore.write(reader, snapshots, logger);
+        deposit(LOW, 0, 5);
+        BalanceSnapshotStore.write(reader, snapshots, logger);
+
+        assertEquals(15.0, BalanceSnapshotStore.balance(LOW, 0));
+        assertArrayEquals(new String[]{"balances-2.snapshot"}, snapshots.list());
+    }
+
+    @Test
+    void fallsBackToAnOlderFileWhenTheNewestIsCorrupt() throws Exception {
+        assertTrue(snapshots.mkdirs());
+        writeFile(1, LOW, 10.0);
+        writeFile(2, LOW, 99.0);
+        try (RandomAccessFile raf = new RandomAccessFile(new File(snapshots, "balances-2.snapshot"), "rw")) {
+            raf.seek(raf.length() - 1);
+            raf.write(raf.read() ^ 0x40);
+        }
+        assertTrue(new File(snapshots, "balances-3.snapshot.tmp").createNewFile());
+
+        BalanceSnapshotStore.load(snapshots, logger);
+
+        assertEquals(10.0, BalanceSnapshotStore.balance(LOW, 0));
+        assertFalse(new File(snapshots, "balances-3.snapshot.tmp").exists());
+    }
+
+    @Test
+    void loadsNothingWhenEveryFileIsDamaged() throws Exception {
+        assertTrue(snapshots.mkdirs());
+        writeFile(1, LOW, 10.0);
+        try (RandomAccessFile raf = new RandomAccessFile(new File(snapshots, "balances-1.snapshot"), "rw")) {
+            raf.setLength(20);
+        }
+
+        BalanceSnapshotStore.load(snapshots, logger);
+
+        assertFalse(BalanceSnapshotStore.isAvailable());
+        assertTrue(Double.isNaN(BalanceSnapshotStore.balance(LOW, 0)));
+    }
+
+    @Test
+    void writeRacingTheSnapshotStaysDirty() throws Exception {
+        long before = deposit(LOW, 0, 10);
+        BalanceSnapshotStore.markDirty(LOW, 0, before);
+        deposit(HIGH, 0, 30);
+
+        // Commit a deposit after the snapshot read its high-water mark but before it reads balances
+        long[] racing = new long[1];
+        Connection hooked = onSecondStatement(reader, () -> {
+            racing[0] = deposit(HIGH, 0, 5);
+            BalanceSnapshotStore.markDirty(HIGH, 0, racing[0]);
+        });
+        BalanceSnapshotStore.write(hooked, snapshots, logger);
+
+        assertEquals(10.0, BalanceSnapshotStore.balance(LOW, 0), "change covered by the snapshot");
+        assertTrue(Double.isNaN(BalanceSnapshotStore.balance(HIGH, 0)), "change the snapshot missed");
+        assertEquals(30.0, BalanceSnapshot.open(new File(snapshots, "balances-1.snapshot")).balance(
+                HIGH.getMostSignificantBits(), HIGH.getLeastSignificantBits(), 0));
+
+        // The next snapshot sees the racing deposit and clears its mark
+        BalanceSnapshotStore.write(reader, snapshots, logger);
+        assertEquals(35.0, BalanceSnapshotStore.balance(HIGH, 0));
+    }
+
+    @Test
+    void bulkChangeDuringWriteDiscardsTheSnapshot() throws Exception {
+        deposit(LOW, 0, 10);
+
+        Connection hooked = onSecondStatement(reader, BalanceSnapshotStore::invalidate);
+        BalanceSnapshotStore.write(hooked, snapshots, logger);
+
+        assertFalse(BalanceSnapshotStore.isAvailable());
+    }
+
+    @Test
+    void verifyMarksAccountsChangedAfterTheSnapshot() throws Exception {
+        deposit(LOW, 0, 10);
+        deposit(HIGH, 0, 30);
+        BalanceSnapshotStore.write(reader, snapshots, logger);
+        BalanceSnapshotStore.invalidate();
+        deposit(HIGH, 0, 5);
+
+        BalanceSnapshotStore.load(snapshots, logger);
+        BalanceSnapshotStore.verify(reader, logger);
+
+        assertEquals(10.0, BalanceSnapshotStore.balance(LOW, 0));
+        assertTrue(Double.isNaN(BalanceSnapshotStore.balance(HIGH, 0)));
+    }
+
+    @Test
+    void verifyDiscardsASnapshotAheadOfTheDatabase() throws Exception {
+        deposit(LOW, 0, 10);
+        BalanceSnapshotStore.write(reader, snapshots, logger);
+        try (Statement statement = writer.createStatement()) {
+            statement.executeUpdate("DELETE FROM currency_bank_history;");
+        }
+
+        BalanceSnapshotStore.verify(reader, logger);
+
+        assertFalse(BalanceSnapshotStore.isAvailable());
+    }
+
+    /**
+     * Credits a balance and logs it as BankDB does, in autocommit mode.
+     *
+     * @return The id of the new history row.
+     */
+    private long deposit(UUID uuid, int coin, double amount) throws SQLException {
+        byte[] key = BankSchema.toBytes(uuid);
+        try (PreparedStatement upsert = writer.prepareStatement(
+                "INSERT INTO currency_bank (uuid, coin_type, balance) VALUES (?, ?, ?) " +
+                        "ON CONFLICT (uuid, coin_type) DO UPDATE SET balance = balance + excluded.balance;")) {
+            upsert.setBytes(1, key);
+            upsert.setInt(2, coin);
+            upsert.setDouble(3, amount);
+            upsert.executeUpdate();
+        }
+        try (PreparedStatement log = writer.prepareStatement(
+                "INSERT INTO currency_bank_history (uuid, change_amount, change_type, coin_type) VALUES (?, ?, ?, ?);",
+                Statement.RETURN_GENERATED_KEYS)) {
+            log.setBytes(1, key);
+            log.setDouble(2, amount);
+            log.setInt(3, BankSchema.CHANGE_DEPOSIT);
+            log.setInt(4, coin);
+            log.executeUpdate();
+            try (ResultSet keys = log.getGeneratedKeys()) {
+                assertTrue(keys.next());
+                return keys.getLong(1);
+            }
+        }
+    }
+
+    private void writeFile(int sequence, UUID uuid, double balance) throws IOException {
+        try (BalanceSnapshot.Writer out = new BalanceSnapshot.Writer(new File(snapshots, "balances-" + sequence + ".snapshot"))) {
+            out.add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), 0, balance);
+            out.commit(0L);
+        }
+    }
+
+    /**
+     * Wraps a connection so the hook runs once, when the second statement is created. The snapshot
+     * writer reads its high-water mark with the first statement and the balances with the second.
+     */
+    private static Connection onSecondStatement(Connection conn, SqlAction hook) {
+        int[] statements = new int[1];
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("createStatement") && ++statements[0] == 2) hook.run();
+                    try {
+                        return method.invoke(conn, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface SqlAction {
+        void run() throws SQLException;
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.mcengine.extension.addon.currency.bank.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the snapshot file format: lookups, unsigned key order and rejection of damaged files.
+ */
+class BalanceSnapshotTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    void looksUpEveryRecordInUnsignedOrder() throws IOException {
+        // Unsigned order puts the negative (high-bit) halves last, as SQL orders the binary uuid column
+        long[][] keys = {
+                {0L, 0L}, {0L, 1L}, {0L, Long.MIN_VALUE}, {0L, -1L},
+                {Long.MAX_VALUE, 5L}, {Long.MIN_VALUE, 0L}, {-1L, -1L}
+        };
+        File file = new File(dir, "balances-1.snapshot");
+        try (BalanceSnapshot.Writer writer = new BalanceSnapshot.Writer(file)) {
+            for (int i = 0; i < keys.length; i++) {
+                writer.add(keys[i][0], keys[i][1], 0, i + 0.5);
+                writer.add(keys[i][0], keys[i][1], 3, i + 100.0);
+            }
+            writer.commit(42L);
+        }
+
+        BalanceSnapshot snapshot = BalanceSnapshot.open(file);
+
+        assertEquals(keys.length * 2, snapshot.count());
+        assertEquals(42L, snapshot.highWater());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i + 0.5, snapshot.balance(keys[i][0], keys[i][1], 0));
+            assertEquals(i + 100.0, snapshot.balance(keys[i][0], keys[i][1], 3));
+            assertEquals(0.0, snapshot.balance(keys[i][0], keys[i][1], 1));
+        }
+        assertEquals(0.0, snapshot.balance(1L, 1L, 0));
+        assertFalse(new File(dir, "balances-1.snapshot.tmp").exists());
+    }
+
+    @Test
+    void emptySnapshotAnswersZero() throws IOException {
+        File file = new File(dir, "balances-1.snapshot");
+        try (BalanceSnapshot.Writer writer = new BalanceSnapshot.Writer(file)) {
+            writer.commit(0L);
+        }
+
+        BalanceSnapshot snapshot = BalanceSnapshot.open(file);
+
+        assertEquals(0, snapshot.count());
+        assertEquals(0.0, snapshot.balance(0L, 0L, 0));
+    }
+
+    @Test
+    void rejectsRecordsOutOfOrder() throws IOException {
+        File file = new File(dir, "balances-1.snapshot");
+        try (BalanceSnapshot.Writer writer = new BalanceSnapshot.Writer(file)) {
+            writer.add(-1L, 0L, 0, 1.0);
+            // Signed order would accept this; unsigned order must not
+            assertThrows(IOException.class, () -> writer.add(1L, 0L, 0, 1.0));
+        }
+
+        assertFalse(file.exists());
+        assertFalse(new File(dir, "balances-1.snapshot.tmp").exists());
+    }
+
+    @Test
+    void rejectsCorruptAndTruncatedFiles() throws IOException {
+        File file = new File(dir, "balances-1.snapshot");
+        try (BalanceSnapshot.Writer writer = new BalanceSnapshot.Writer(file)) {
+            writer.add(1L, 2L, 0, 10.0);
+            writer.add(1L, 3L, 0, 20.0);
+            writer.commit(7L);
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // Flip a bit in the second record's balance
+            raf.seek(raf.length() - 1);
+            int last = raf.read();
+            raf.seek(raf.length() - 1);
+            raf.write(last ^ 1);
+        }
+        IOException corrupt = assertThrows(IOException.class, () -> BalanceSnapshot.open(file));
+        assertTrue(corrupt.getMessage().contains("checksum"));
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 4);
+        }
+        assertThrows(IOException.class, () -> BalanceSnapshot.open(file));
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(10);
+        }
+        assertThrows(IOException.class, () -> BalanceSnapshot.open(file));
+    }
+}